@@ -5,17 +5,48 @@ import java.io.FileFilter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.configuration.CompositeConfiguration;
-import org.apache.commons.io.FileUtils;
+import org.jbake.app.ConfigUtil.Keys;
+import org.jbake.util.GzipCompression;
+import org.jbake.util.OutputManifest;
+import org.jbake.util.OutputTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Deals with assets (static files such as css, js or image files).
  *
+ * <p>
+ * If {@link Keys#ASSET_THREADS} is greater than one, the files are copied by a pool of worker threads. If a
+ * {@link ContentStore} is given, the copied files are recorded in it, and files copied by an earlier bake whose
+ * asset no longer exists are deleted, unless {@link Keys#ASSET_PRUNE} is disabled.
+ * </p>
+ *
+ * <p>
+ * If {@link Keys#ASSET_FINGERPRINT} is enabled, assets are copied to names containing a hash of their content, e.g.
+ * <code>css/style.&lt;hash&gt;.css</code>, so that they can be cached forever. Templates look up the current name with
+ * {@link #fingerprintedPath(ContentStore, String)}, exposed as <code>asset_paths</code> model.
+ * </p>
+ *
+ * <p>
+ * If {@link ImageVariants} are configured, scaled down variants of image assets are written next to their copies.
+ * They are only generated again if the content of the image or the configured variants change. Templates find them
+ * with {@link #srcset(ContentStore, String)} and {@link #thumbnailPath(ContentStore, String)}.
+ * </p>
+ *
  * @author Jonathan Bullock <jonbullock@gmail.com>
  *
  */
@@ -23,11 +54,107 @@ public class Asset {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Asset.class);
 
+    /**
+     * Prefix of the keys under which copied assets are recorded in the {@link ContentStore}.
+     */
+    private static final String ASSET_SIGNATURE_PREFIX = "asset.";
+
+    /**
+     * Signature recorded for copied assets, removed assets are recorded with an empty signature.
+     */
+    private static final String COPIED = "copied";
+
+    /**
+     * Prefix of the keys under which the fingerprinted path of each asset is stored in the {@link ContentStore}.
+     */
+    private static final String FINGERPRINT_PREFIX = "fingerprint.";
+
+    /**
+     * Key of the signature of all fingerprinted paths, empty if fingerprinting is disabled.
+     */
+    private static final String FINGERPRINTS = "fingerprints";
+
+    /**
+     * Number of hex digits of the content hash used in fingerprinted names.
+     */
+    private static final int FINGERPRINT_LENGTH = 10;
+
+    /**
+     * Prefixes of the keys under which the cache key, the <code>srcset</code> and the thumbnail of each image are
+     * stored in the {@link ContentStore}.
+     */
+    private static final String IMAGE_PREFIX = "image.";
+    private static final String SRCSET_PREFIX = "srcset.";
+    private static final String THUMBNAIL_PREFIX = "thumbnail.";
+
+    /**
+     * Key of the signature of all image variants, empty if no variants are generated.
+     */
+    private static final String IMAGE_VARIANTS = "imagevariants";
+
+    /**
+     * The variants generated for an image.
+     */
+    private static final class ImageRecord {
+    	/**
+    	 * The hash of the destination path and variant specification, a colon, and the hash of the image content.
+    	 */
+    	final String key;
+    	final String srcset;
+    	final String thumbnail;
+
+    	ImageRecord(String key, String srcset, String thumbnail) {
+    		this.key = key;
+    		this.srcset = srcset;
+    		this.thumbnail = thumbnail;
+    	}
+
+    	/**
+    	 * The paths of all files listed, relative to the destination folder.
+    	 */
+    	List<String> paths() {
+    		List<String> result = new ArrayList<String>();
+    		if (!srcset.isEmpty()) {
+    			for (String candidate : srcset.split(", ")) {
+    				result.add(candidate.substring(0, candidate.lastIndexOf(' ')));
+    			}
+    		}
+    		if (!thumbnail.isEmpty()) {
+    			result.add(thumbnail);
+    		}
+    		return result;
+    	}
+    }
+
+    /**
+     * The result of synchronizing a single asset.
+     */
+    private static final class Copy {
+    	final String path;
+    	final String fingerprintedPath;
+    	final boolean checked;
+    	final ImageRecord image;
+
+    	Copy(String path, String fingerprintedPath, boolean checked, ImageRecord image) {
+    		this.path = path;
+    		this.fingerprintedPath = fingerprintedPath;
+    		this.checked = checked;
+    		this.image = image;
+    	}
+    }
+
     private File source;
 	private File destination;
 	private CompositeConfiguration config;
-	private final List<Throwable> errors = new LinkedList<Throwable>();
+	private final ContentStore db;
+	private final List<Throwable> errors = Collections.synchronizedList(new LinkedList<Throwable>());
 	private final boolean ignoreHidden;
+	private final boolean verifyContent;
+	private final boolean fingerprint;
+	private String fingerprintSignature = "";
+	private final ImageVariants images;
+	private String variantSignature = "";
+	private final OutputTracker output;
 
 	/**
 	 * Creates an instance of Asset.
@@ -36,10 +163,28 @@ public class Asset {
 	 * @param destination
 	 */
 	public Asset(File source, File destination, CompositeConfiguration config) {
+		this(source, destination, config, null);
+	}
+
+	/**
+	 * Creates an instance of Asset that records the copied files.
+	 *
+	 * @param source
+	 * @param destination
+	 * @param db The {@link ContentStore} recording the copied assets, <code>null</code> to neither record nor
+	 *        prune them.
+	 */
+	public Asset(File source, File destination, CompositeConfiguration config, ContentStore db) {
 		this.source = source;
 		this.config = config;
 		this.destination = destination;
+		this.db = db;
 		ignoreHidden = config.getBoolean(ConfigUtil.Keys.ASSET_IGNORE_HIDDEN, false);
+		verifyContent = "hash".equals(config.getString(Keys.ASSET_VERIFY, "stat"));
+		fingerprint = config.getBoolean(Keys.ASSET_FINGERPRINT, false);
+		images = ImageVariants.fromConfig(config);
+		output = new OutputTracker(verifyContent || config.getBoolean(ConfigUtil.Keys.OUTPUT_WRITE_IF_CHANGED, true));
+		output.setCompression(GzipCompression.fromConfig(config));
 	}
 
 	/**
@@ -48,6 +193,166 @@ public class Asset {
 	 * @param path	The starting path
 	 */
 	public void copy(File path) {
+		List<File> assets = new ArrayList<File>();
+		collectAssets(path, assets);
+
+		// the fingerprinted names of the last bake, to avoid hashing unmodified assets
+		final Map<File, String> previousPaths = new HashMap<File, String>();
+		if (fingerprint && db != null) {
+			for (File asset : assets) {
+				String previous = db.getSignature(FINGERPRINT_PREFIX + relativePath(destinationFile(asset)));
+				if (previous != null && !previous.isEmpty()) {
+					previousPaths.put(asset, previous);
+				}
+			}
+		}
+
+		// the variants of the last bake, the workers must not access the store
+		final Map<File, ImageRecord> previousImages = new HashMap<File, ImageRecord>();
+		if (images != null && db != null) {
+			for (File asset : assets) {
+				if (images.appliesTo(asset)) {
+					String assetPath = relativePath(destinationFile(asset));
+					String key = db.getSignature(IMAGE_PREFIX + assetPath);
+					if (key != null && !key.isEmpty()) {
+						previousImages.put(asset, new ImageRecord(key,
+								String.valueOf(db.getSignature(SRCSET_PREFIX + assetPath)),
+								String.valueOf(db.getSignature(THUMBNAIL_PREFIX + assetPath))));
+					}
+				}
+			}
+		}
+
+		int threads = config.getInt(Keys.ASSET_THREADS, 1);
+		List<Copy> copies;
+		if (threads > 1 && assets.size() > 1) {
+			copies = copyParallel(assets, previousPaths, previousImages, threads);
+		} else {
+			copies = new ArrayList<Copy>();
+			for (File asset : assets) {
+				copies.add(copyAsset(asset, previousPaths.get(asset), previousImages.get(asset)));
+			}
+		}
+
+		if (fingerprint) {
+			List<String> paths = new ArrayList<String>();
+			for (Copy copy : copies) {
+				if (copy != null) {
+					paths.add(copy.path);
+					paths.add(copy.fingerprintedPath);
+				}
+			}
+			fingerprintSignature = HashUtil.sha1(paths);
+		}
+
+		if (images != null) {
+			List<String> variants = new ArrayList<String>();
+			for (Copy copy : copies) {
+				if (copy != null && copy.image != null) {
+					variants.add(copy.path);
+					variants.add(copy.image.srcset);
+					variants.add(copy.image.thumbnail);
+				}
+			}
+			variantSignature = HashUtil.sha1(variants);
+		}
+
+		if (db != null) {
+			// written by every bake recording its assets in this store
+			boolean recorded = db.getSignature(IMAGE_VARIANTS) != null;
+			record(copies);
+			// the copies of assets that failed are unknown
+			if (config.getBoolean(Keys.ASSET_PRUNE, true) && errors.isEmpty()) {
+				OutputManifest manifest = output.getManifest();
+				String store = config.getString(Keys.DB_STORE, "memory");
+				if (manifest == null && !recorded && !DBUtil.isPersistent(store)) {
+					LOGGER.warn("Assets of earlier runs are unknown with {}={}: removed assets and old fingerprinted copies are"
+							+ " not pruned, image variants are generated again. Use a persistent store (plocal, snapshot)"
+							+ " or configure {}.", Keys.DB_STORE, store, Keys.OUTPUT_MANIFEST);
+				}
+				Set<String> previous = manifest == null ? Collections.<String>emptySet() : manifest.getPreviousOutputs(path);
+				prune(copies, previous);
+			}
+		}
+	}
+
+	/**
+	 * The signature of the fingerprinted paths of all assets found by {@link #copy(File)}, empty if fingerprinting is
+	 * disabled. Rendered pages referencing assets must be rendered again if it changes.
+	 */
+	public String getFingerprintSignature() {
+		return fingerprintSignature;
+	}
+
+	/**
+	 * The signature of the variants of all images found by {@link #copy(File)}, empty if no variants are generated.
+	 * Rendered pages referencing images must be rendered again if it changes.
+	 */
+	public String getVariantSignature() {
+		return variantSignature;
+	}
+
+	/**
+	 * Looks up the <code>srcset</code> of an image, listing its variants and the image itself with their widths, e.g.
+	 * <code>img/photo-320w.jpg 320w, img/photo.jpg 800w</code>.
+	 *
+	 * @param db The {@link ContentStore} the assets have been recorded in.
+	 * @param path The path of an image relative to the assets folder.
+	 * @return The <code>srcset</code>, or the path of the copy if the image has no variants.
+	 */
+	public static String srcset(ContentStore db, String path) {
+		String result = imageRecord(db, SRCSET_PREFIX, path);
+		if (result == null) {
+			return fingerprintedPath(db, path);
+		}
+		return path.startsWith("/") ? "/" + result.replace(", ", ", /") : result;
+	}
+
+	/**
+	 * Looks up the thumbnail of an image.
+	 *
+	 * @param db The {@link ContentStore} the assets have been recorded in.
+	 * @param path The path of an image relative to the assets folder.
+	 * @return The path of the thumbnail, or the path of the copy if the image has no thumbnail.
+	 */
+	public static String thumbnailPath(ContentStore db, String path) {
+		String result = imageRecord(db, THUMBNAIL_PREFIX, path);
+		if (result == null) {
+			return fingerprintedPath(db, path);
+		}
+		return path.startsWith("/") ? "/" + result : result;
+	}
+
+	private static String imageRecord(ContentStore db, String prefix, String path) {
+		String signature = db.getSignature(IMAGE_VARIANTS);
+		if (signature == null || signature.isEmpty()) {
+			return null;
+		}
+		String result = db.getSignature(prefix + (path.startsWith("/") ? path.substring(1) : path));
+		return result == null || result.isEmpty() ? null : result;
+	}
+
+	/**
+	 * Looks up the path of the copy of an asset.
+	 *
+	 * @param db The {@link ContentStore} the assets have been recorded in.
+	 * @param path The path of an asset relative to the assets folder.
+	 * @return The fingerprinted path of the copy, or the given path if the asset has not been fingerprinted.
+	 */
+	public static String fingerprintedPath(ContentStore db, String path) {
+		String signature = db.getSignature(FINGERPRINTS);
+		if (signature == null || signature.isEmpty()) {
+			return path;
+		}
+		boolean absolute = path.startsWith("/");
+		String result = db.getSignature(FINGERPRINT_PREFIX + (absolute ? path.substring(1) : path));
+		if (result == null || result.isEmpty()) {
+			return path;
+		}
+		return absolute ? "/" + result : result;
+	}
+
+	private void collectAssets(File path, List<File> result) {
 		File[] assets = path.listFiles(new FileFilter() {
 			@Override
 			public boolean accept(File file) {
@@ -58,32 +363,283 @@ public class Asset {
 			Arrays.sort(assets);
 			for (int i = 0; i < assets.length; i++) {
 				if (assets[i].isFile()) {
-					File sourceFile = assets[i];
-					File destFile = new File(sourceFile.getPath().replace(source.getPath()+File.separator+config.getString(ConfigUtil.Keys.ASSET_FOLDER), destination.getPath()));
-					if (sourceFile.lastModified() > destFile.lastModified()) {
-						StringBuilder sb = new StringBuilder();
-						sb.append("Copying [" + assets[i].getPath() + "]...");
-						try {
-							FileUtils.copyFile(sourceFile, destFile);
-							sb.append("done!");
-							LOGGER.info(sb.toString());
-						} catch (IOException e) {
-							sb.append("failed!");
-							LOGGER.error(sb.toString(), e);
-							e.printStackTrace();
-							errors.add(e);
-						}
-					}
+					result.add(assets[i]);
 				}
 				else if (assets[i].isDirectory()) {
-					copy(assets[i]);
+					collectAssets(assets[i], result);
+				}
+			}
+		}
+	}
+
+	private List<Copy> copyParallel(List<File> assets, final Map<File, String> previousPaths,
+			final Map<File, ImageRecord> previousImages, int threads) {
+		ExecutorService workers = Executors.newFixedThreadPool(Math.min(threads, assets.size()));
+		try {
+			List<Future<Copy>> futures = new ArrayList<Future<Copy>>(assets.size());
+			for (final File asset : assets) {
+				futures.add(workers.submit(new Callable<Copy>() {
+					@Override
+					public Copy call() {
+						return copyAsset(asset, previousPaths.get(asset), previousImages.get(asset));
+					}
+				}));
+			}
+
+			List<Copy> result = new ArrayList<Copy>(assets.size());
+			for (Future<Copy> future : futures) {
+				try {
+					result.add(future.get());
+				} catch (ExecutionException e) {
+					LOGGER.error("Failed to copy asset.", e.getCause());
+					errors.add(e.getCause());
+				}
+			}
+			return result;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new JBakeException("Copying assets was interrupted.", e);
+		} finally {
+			workers.shutdownNow();
+		}
+	}
+
+	/**
+	 * Copies a single asset if it is new or has changed.
+	 *
+	 * @param previousPath The fingerprinted path of the asset in the last bake, <code>null</code> if unknown.
+	 * @param previousImage The variants of the image in the last bake, <code>null</code> if unknown.
+	 * @return The copy, or <code>null</code> if copying failed.
+	 */
+	private Copy copyAsset(File sourceFile, String previousPath, ImageRecord previousImage) {
+		File plainFile = destinationFile(sourceFile);
+		String path = relativePath(plainFile);
+		StringBuilder sb = new StringBuilder();
+		sb.append("Copying [" + sourceFile.getPath() + "]...");
+		try {
+			File destFile = plainFile;
+			String hash = null;
+			if (fingerprint) {
+				File previousFile = previousPath == null ? null : new File(destination, previousPath);
+				if (previousFile != null && !needsCopy(sourceFile, previousFile)) {
+					destFile = previousFile;
+				} else {
+					hash = HashUtil.sha1(sourceFile);
+					destFile = fingerprintedFile(plainFile, hash);
+				}
+			}
+			boolean checked = needsCopy(sourceFile, destFile);
+			if (checked) {
+				output.copy(sourceFile, destFile, sourceFile.getPath());
+				sb.append("done!");
+				LOGGER.info(sb.toString());
+			}
+			ImageRecord image = null;
+			if (images != null && images.appliesTo(sourceFile)) {
+				image = processImage(sourceFile, destFile, checked, hash, previousImage);
+			}
+			return new Copy(path, relativePath(destFile), checked, image);
+		} catch (IOException e) {
+			sb.append("failed!");
+			LOGGER.error(sb.toString(), e);
+			errors.add(e);
+			return null;
+		}
+	}
+
+	/**
+	 * Generates the variants of an image, unless the variants of the last bake have been generated from the same
+	 * image content and configuration and still exist.
+	 *
+	 * <p>
+	 * The content of an image is only hashed if it has been modified since the last bake, or if
+	 * {@link Keys#ASSET_VERIFY} is <code>hash</code>.
+	 * </p>
+	 *
+	 * @param checked Whether the copy has been checked in this bake, see {@link #needsCopy(File, File)}.
+	 * @param hash The hash of the image content if already computed, <code>null</code> otherwise.
+	 * @return The variants, or <code>null</code> if the image could not be processed and is tried again next time.
+	 */
+	private ImageRecord processImage(File sourceFile, File destFile, boolean checked, String hash,
+			ImageRecord previous) throws IOException {
+		String settings = HashUtil.sha1(Arrays.asList(relativePath(destFile), images.getSpec()));
+		if (hash == null) {
+			if (!checked && previous != null && previous.key.startsWith(settings + ':')) {
+				// unchanged since the last bake
+				hash = previous.key.substring(settings.length() + 1);
+			} else {
+				hash = HashUtil.sha1(sourceFile);
+			}
+		}
+		String key = settings + ':' + hash;
+		if (previous != null && key.equals(previous.key) && exist(previous.paths())) {
+			return previous;
+		}
+
+		ImageVariants.Result result;
+		try {
+			result = images.generate(sourceFile, destFile, output);
+		} catch (IOException e) {
+			// e.g. an image format not supported by ImageIO, the image is still copied
+			LOGGER.warn("Failed to generate variants of image [{}]: {}", sourceFile.getPath(), e.getMessage());
+			return null;
+		} catch (RuntimeException e) {
+			LOGGER.warn("Failed to read image [{}]: {}", sourceFile.getPath(), e.getMessage());
+			result = null;
+		}
+		if (result == null) {
+			return new ImageRecord(key, "", "");
+		}
+
+		StringBuilder srcset = new StringBuilder();
+		for (int n = 0, cnt = result.getFiles().size(); n < cnt; n++) {
+			srcset.append(relativePath(result.getFiles().get(n))).append(' ').append(result.getWidths().get(n)).append("w, ");
+		}
+		srcset.append(relativePath(destFile)).append(' ').append(result.getWidth()).append('w');
+		String thumbnail = result.getThumbnail() == null ? "" : relativePath(result.getThumbnail());
+		LOGGER.info("Generated variants of [{}]", sourceFile.getPath());
+		return new ImageRecord(key, srcset.toString(), thumbnail);
+	}
+
+	private boolean exist(List<String> paths) {
+		for (String path : paths) {
+			if (!new File(destination, path).isFile()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static File fingerprintedFile(File file, String hash) {
+		String name = file.getName();
+		String fingerprint = hash.substring(0, FINGERPRINT_LENGTH);
+		int dot = name.lastIndexOf('.');
+		if (dot > 0) {
+			name = name.substring(0, dot) + '.' + fingerprint + name.substring(dot);
+		} else {
+			name = name + '.' + fingerprint;
+		}
+		return new File(file.getParentFile(), name);
+	}
+
+	/**
+	 * Decides whether a copy must be made. Modification times are only trusted if {@link Keys#ASSET_VERIFY} is
+	 * <code>stat</code>, otherwise the contents are compared by the {@link OutputTracker}. Copies lacking their
+	 * compressed sibling are passed to the {@link OutputTracker} as well.
+	 */
+	private boolean needsCopy(File sourceFile, File destFile) {
+		if (verifyContent) {
+			return true;
+		}
+		if (sourceFile.lastModified() > destFile.lastModified() || sourceFile.length() != destFile.length()) {
+			return true;
+		}
+		// a missing compressed sibling must be written, one no longer configured removed
+		GzipCompression gzip = output.getCompression();
+		boolean compress = gzip != null && gzip.appliesTo(destFile) && gzip.compresses(destFile.length());
+		return compress != GzipCompression.compressedFile(destFile).isFile()
+				&& (compress || !GzipCompression.compressedFile(sourceFile).exists());
+	}
+
+	private File destinationFile(File sourceFile) {
+		return new File(sourceFile.getPath().replace(source.getPath()+File.separator+config.getString(ConfigUtil.Keys.ASSET_FOLDER), destination.getPath()));
+	}
+
+	private String relativePath(File destFile) {
+		return destFile.getPath().substring(destination.getPath().length() + 1).replace(File.separatorChar, '/');
+	}
+
+	private void record(List<Copy> copies) {
+		for (Copy copy : copies) {
+			if (copy == null) {
+				continue;
+			}
+			// also assets copied by an earlier run not recorded in this store
+			updateSignature(ASSET_SIGNATURE_PREFIX + copy.fingerprintedPath, COPIED);
+			if (fingerprint && !copy.fingerprintedPath.equals(db.getSignature(FINGERPRINT_PREFIX + copy.path))) {
+				db.updateSignature(FINGERPRINT_PREFIX + copy.path, copy.fingerprintedPath);
+			}
+			if (copy.image != null) {
+				updateSignature(IMAGE_PREFIX + copy.path, copy.image.key);
+				updateSignature(SRCSET_PREFIX + copy.path, copy.image.srcset);
+				updateSignature(THUMBNAIL_PREFIX + copy.path, copy.image.thumbnail);
+				for (String variant : copy.image.paths()) {
+					updateSignature(ASSET_SIGNATURE_PREFIX + variant, COPIED);
+				}
+			}
+		}
+		updateSignature(FINGERPRINTS, fingerprintSignature);
+		updateSignature(IMAGE_VARIANTS, variantSignature);
+	}
+
+	private void updateSignature(String key, String signature) {
+		if (!signature.equals(db.getSignature(key))) {
+			db.updateSignature(key, signature);
+		}
+	}
+
+	/**
+	 * Deletes files copied by an earlier bake whose asset no longer exists, other files of the destination folder are
+	 * kept. Fingerprinted copies of earlier versions of an asset are deleted as well.
+	 *
+	 * @param previous The files copied by the previous bake according to the {@link OutputManifest}, in addition to
+	 *        the copies recorded in the {@link ContentStore}.
+	 */
+	private void prune(List<Copy> copies, Set<String> previous) {
+		Set<String> current = new HashSet<String>();
+		for (Copy copy : copies) {
+			if (copy != null) {
+				current.add(copy.fingerprintedPath);
+				if (copy.image != null) {
+					current.addAll(copy.image.paths());
+				}
+			}
+		}
+		pruneFolder(destination, current, previous);
+	}
+
+	private void pruneFolder(File folder, Set<String> current, Set<String> previous) {
+		File[] files = folder.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			if (file.isDirectory()) {
+				pruneFolder(file, current, previous);
+				continue;
+			}
+			String path = relativePath(file);
+			if (current.contains(path) || (path.endsWith(GzipCompression.SUFFIX)
+					&& current.contains(path.substring(0, path.length() - GzipCompression.SUFFIX.length())))) {
+				// compressed siblings of current copies are maintained by the OutputTracker
+				continue;
+			}
+			String signature = db.getSignature(ASSET_SIGNATURE_PREFIX + path);
+			boolean copied = signature != null && !signature.isEmpty();
+			if (copied || previous.contains(path)) {
+				if (output.delete(file)) {
+					LOGGER.info("Deleted removed asset [{}]", file.getPath());
+				} else {
+					LOGGER.warn("Failed to delete removed asset: {}", file);
+				}
+				if (copied) {
+					db.updateSignature(ASSET_SIGNATURE_PREFIX + path, "");
 				}
 			}
 		}
 	}
 
+	/**
+	 * The {@link OutputTracker} counting the copied assets.
+	 */
+	public OutputTracker getOutputTracker() {
+		return output;
+	}
+
 	public List<Throwable> getErrors() {
-		return new ArrayList<Throwable>(errors);
+		synchronized (errors) {
+			return new ArrayList<Throwable>(errors);
+		}
 	}
 
 }
@@ -66,6 +66,50 @@ public class ConfigUtil {
 		 */
 		String ASSET_IGNORE_HIDDEN = "asset.ignore";
 
+		/**
+		 * Number of worker threads used to copy assets, a value greater than 1 enables the parallel copy
+		 */
+		String ASSET_THREADS = "asset.threads";
+
+		/**
+		 * How modified assets are detected: "stat" compares size and modification time, "hash" compares the contents
+		 * and ignores modification times
+		 */
+		String ASSET_VERIFY = "asset.verify";
+
+		/**
+		 * Flag indicating if copies of assets that no longer exist should be deleted from the output folder, assets
+		 * removed between runs are only known with a persistent {@link #DB_STORE} or an {@link #OUTPUT_MANIFEST}
+		 */
+		String ASSET_PRUNE = "asset.prune";
+
+		/**
+		 * Flag indicating if assets should be copied to names containing a hash of their content, templates find the
+		 * names in the <code>asset_paths</code> model
+		 */
+		String ASSET_FINGERPRINT = "asset.fingerprint";
+
+		/**
+		 * Comma separated widths of the scaled down variants generated for image assets, templates find them in the
+		 * <code>image_srcset</code> and <code>image_thumbnails</code> models
+		 */
+		String ASSET_IMAGE_WIDTHS = "asset.image.widths";
+
+		/**
+		 * Size of the square thumbnails of image assets fit into, 0 for no thumbnails
+		 */
+		String ASSET_IMAGE_THUMBNAIL = "asset.image.thumbnail";
+
+		/**
+		 * Comma separated extensions of the image assets variants are generated for
+		 */
+		String ASSET_IMAGE_EXTENSIONS = "asset.image.extensions";
+
+		/**
+		 * JPEG quality of generated image variants from 0 to 1
+		 */
+		String ASSET_IMAGE_QUALITY = "asset.image.quality";
+
 		/**
 		 * Timestamp that records when JBake build was made
 		 */
@@ -75,6 +119,17 @@ public class ConfigUtil {
 		 * Folder where content (that's to say files to be transformed) resides in
 		 */
 		String CONTENT_FOLDER = "content.folder";
+
+		/**
+		 * Number of worker threads used to hash and parse content files, a value greater than 1 enables the parallel crawl
+		 */
+		String CRAWL_THREADS = "crawl.threads";
+
+		/**
+		 * How the crawler detects modified content files: "hash" compares the SHA-1 of the contents, "stat" compares
+		 * file size and modification time, "stat+hash" only hashes files with a different size or modification time
+		 */
+		String CRAWL_VERIFY = "crawl.verify";
 		
 		/**
 		 * How date is formated
@@ -82,12 +137,13 @@ public class ConfigUtil {
 		String DATE_FORMAT = "date.format";
 		
 		/**
-		 * Folder to store database files in
+		 * Folder to store database files in, relative to the source folder
 		 */
 		String DB_PATH = "db.path";
 		
 		/**
-		 * Flag to identify if database is kept in memory (memory) or persisted to disk (local)
+		 * Flag to identify if database is kept in memory (memory) or persisted to disk (plocal), or if the in-process
+		 * store without database engine is used instead (java), optionally kept in a snapshot file (snapshot)
 		 */
 		String DB_STORE = "db.store";
 		
@@ -121,6 +177,34 @@ public class ConfigUtil {
 		 */
 		String OUTPUT_EXTENSION = "output.extension";
 		
+		/**
+		 * Flag indicating if output files and assets are only written if their content changes, which keeps the
+		 * modification time of unchanged files
+		 */
+		String OUTPUT_WRITE_IF_CHANGED = "output.writeIfChanged";
+		
+		/**
+		 * File to write the manifest of all output files to after each bake, relative to the source folder, no
+		 * manifest is written if empty
+		 */
+		String OUTPUT_MANIFEST = "output.manifest";
+		
+		/**
+		 * Extensions of output files and assets for which a gzip compressed <code>.gz</code> sibling is written, no
+		 * compressed files are written if empty
+		 */
+		String OUTPUT_GZIP = "output.gzip";
+		
+		/**
+		 * Compression level of the gzip compressed siblings, from 1 (fastest) to 9 (smallest)
+		 */
+		String OUTPUT_GZIP_LEVEL = "output.gzip.level";
+		
+		/**
+		 * Minimum size in bytes of files for which a gzip compressed sibling is written
+		 */
+		String OUTPUT_GZIP_MIN_SIZE = "output.gzip.minSize";
+		
 		/**
 		 * Flag indicating if archive file should be generated
 		 */
@@ -131,16 +215,34 @@ public class ConfigUtil {
 		 */
 		String RENDER_ENCODING = "render.encoding";
 		
+		/**
+		 * Names of the {@link org.jbake.processors.ContentProcessor}s applied to rendered documents, in order, may be
+		 * given for a single document type by appending <code>.&lt;type&gt;</code>
+		 */
+		String RENDER_PROCESSORS = "render.processors";
+		
 		/**
 		 * Flag indicating if feed file should be generated
 		 */
 		String RENDER_FEED = "render.feed";
 		
+		/**
+		 * Flag indicating if the index, feed, archive and sitemap files should only be rendered again if the document
+		 * attributes covered by their digest have changed since the last bake
+		 */
+		String RENDER_DIGEST = "render.digest";
+		
 		/**
 		 * Flag indicating if index file should be generated
 		 */
 		String RENDER_INDEX = "render.index";
 		
+		/**
+		 * Flag indicating if only the pages of a paginated index whose posts have changed since the last bake should be
+		 * rendered again
+		 */
+		String RENDER_INDEX_INCREMENTAL = "render.index.incremental";
+		
 		/**
 		 * Flag indicating if sitemap file should be generated
 		 */
@@ -151,6 +253,18 @@ public class ConfigUtil {
 		 */
 		String RENDER_TAGS = "render.tags";
 		
+		/**
+		 * Flag indicating if only the tag files whose posts, template or configuration have changed since the last bake
+		 * should be rendered again, used only when {@link #RENDER_TAGS} is true. Off by default, because tag templates
+		 * may show data of other tags
+		 */
+		String RENDER_TAGS_INCREMENTAL = "render.tags.incremental";
+		
+		/**
+		 * Number of worker threads used to render documents, a value greater than 1 enables parallel rendering
+		 */
+		String RENDER_THREADS = "render.threads";
+		
 		/**
 		 * Port used when running Jetty server
 		 */
@@ -23,236 +23,173 @@
  */
 package org.jbake.app;
 
-import com.orientechnologies.orient.core.Orient;
-import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
-import com.orientechnologies.orient.core.db.document.ODatabaseDocumentPool;
-import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
-import com.orientechnologies.orient.core.metadata.schema.OClass;
-import com.orientechnologies.orient.core.metadata.schema.OSchema;
-import com.orientechnologies.orient.core.metadata.schema.OType;
-import com.orientechnologies.orient.core.record.impl.ODocument;
-import com.orientechnologies.orient.core.sql.OCommandSQL;
-import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
-import org.jbake.model.DocumentAttributes;
-import org.jbake.model.DocumentTypes;
-
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
- * @author jdlee
+ * Stores the parsed documents and the signatures of the last bake.
+ *
+ * <p>
+ * Documents are maps of attributes, stored per document type. Results are returned as {@link DocumentList}s of
+ * independent maps, except for the documents of the {@link TagIndex}. Implementations must allow access from several
+ * threads at once.
+ * </p>
+ *
+ * @see DBUtil#createDataStore(String, String)
  */
-public class ContentStore {
-
-    private ODatabaseDocumentTx db;
-    private long start = -1;
-    private long limit = -1;
-
-    public ContentStore(final String type, String name) {
-        startupIfEnginesAreMissing();
-        db = new ODatabaseDocumentTx(type + ":" + name);
-        boolean exists = db.exists();
-        if (!exists) {
-            db.create();
-        }
-        db = ODatabaseDocumentPool.global().acquire(type + ":" + name, "admin", "admin");
-        ODatabaseRecordThreadLocal.INSTANCE.set(db);
-        if (!exists) {
-            updateSchema();
-        }
-    }
-
-    public long getStart() {
-        return start;
-    }
-
-    public void setStart(int start) {
-        this.start = start;
-    }
-
-    public long getLimit() {
-        return limit;
-    }
-
-    public void setLimit(int limit) {
-        this.limit = limit;
-    }
-
-    public void resetPagination() {
-        this.start = -1;
-        this.limit = -1;
-    }
-
-    public final void updateSchema() {
-        OSchema schema = db.getMetadata().getSchema();
-        for (String docType : DocumentTypes.getDocumentTypes()) {
-            if (schema.getClass(docType) == null) {
-                createDocType(schema, docType);
-            }
-        }
-        if (schema.getClass("Signatures") == null) {
-            // create the sha1 signatures class
-            OClass signatures = schema.createClass("Signatures");
-            signatures.createProperty("key", OType.STRING).setNotNull(true);
-            signatures.createProperty("sha1", OType.STRING).setNotNull(true);
-        }
-    }
-
-    public void close() {
-        db.close();
-        DBUtil.closeDataStore();
-    }
-
-    public void shutdown() {
-        Orient.instance().shutdown();
-    }
-
-    private void startupIfEnginesAreMissing() {
-        // If an instance of Orient was previously shutdown all engines are removed.
-        // We need to startup Orient again.
-        if ( Orient.instance().getEngines().size() == 0 ) {
-            Orient.instance().startup();
-        }
-    }
-
-    public void drop() {
-        db.drop();
-    }
-
-    public long getDocumentCount(String docType) {
-        return db.countClass(docType);
-    }
-
-    public DocumentList getDocumentStatus(String docType, String uri) {
-        return query("select sha1,rendered from " + docType + " where sourceuri=?", uri);
-
-    }
-
-    public DocumentList getPublishedPosts() {
-        return getPublishedContent("post");
-    }
-
-    public DocumentList getPublishedPostsByTag(String tag) {
-        return query("select * from post where status='published' and ? in tags order by date desc", tag);
-    }
-
-    public DocumentList getPublishedPages() {
-        return getPublishedContent("page");
-    }
-
-    public DocumentList getPublishedContent(String docType) {
-        String query = "select * from " + docType + " where status='published'";
-        if ((start >= 0) && (limit > -1)) {
-            query += " SKIP " + start + " LIMIT " + limit;
-        }
-        return query(query + " order by date desc");
-    }
-
-    public DocumentList getAllContent(String docType) {
-        String query = "select * from " + docType;
-        if ((start >= 0) && (limit > -1)) {
-            query += " SKIP " + start + " LIMIT " + limit;
-        }
-        return query(query + " order by date desc");
-    }
-
-    public DocumentList getAllTagsFromPublishedPosts() {
-        return query("select tags from post where status='published'");
-    }
-
-    public DocumentList getSignaturesForTemplates() {
-        return query("select sha1 from Signatures where key='templates'");
-    }
-
-    public DocumentList getUnrenderedContent(String docType) {
-        return query("select * from " + docType + " where rendered=false");
-    }
-
-    public void deleteContent(String uri) {
-        for (String docType : DocumentTypes.getDocumentTypes()) {
-        	deleteContent(docType, uri);
-        }
-    }
-    
-    public void deleteContent(String docType, String uri) {
-        executeCommand("delete from " + docType + " where sourceuri=?", uri);
-    }
-
-    public void markConentAsRendered(String docType) {
-        executeCommand("update " + docType + " set rendered=true where rendered=false and cached=true");
-    }
-
-    public void updateSignatures(String currentTemplatesSignature) {
-        executeCommand("update Signatures set sha1=? where key='templates'", currentTemplatesSignature);
-    }
-
-    public void deleteAllByDocType(String docType) {
-        executeCommand("delete from " + docType);
-    }
-
-    public void insertSignature(String currentTemplatesSignature) {
-        executeCommand("insert into Signatures(key,sha1) values('templates',?)", currentTemplatesSignature);
-    }
-
-    public DocumentList query(String sql) {
-        List<ODocument> results = db.query(new OSQLSynchQuery<ODocument>(sql));
-        return DocumentList.wrap(results.iterator());
-    }
-
-    private DocumentList query(String sql, Object... args) {
-        List<ODocument> results = db.command(new OSQLSynchQuery<ODocument>(sql)).execute(args);
-        return DocumentList.wrap(results.iterator());
-    }
-
-    private void executeCommand(String query, Object... args) {
-        db.command(new OCommandSQL(query)).execute(args);
-    }
-
-    public Set<String> getTags() {
-        DocumentList docs = this.getAllTagsFromPublishedPosts();
-        Set<String> result = new HashSet<String>();
-        for (Map<String, Object> document : docs) {
-            String[] tags = DBUtil.toStringArray(document.get(Crawler.Attributes.TAGS));
-            Collections.addAll(result, tags);
-        }
-        return result;
-    }
-
-    public Set<String> getAllTags() {
-        Set<String> result = new HashSet<String>();
-        for (String docType : DocumentTypes.getDocumentTypes()) {
-            DocumentList docs = query("select tags from " + docType + " where status='published'");
-            for (Map<String, Object> document : docs) {
-                String[] tags = DBUtil.toStringArray(document.get(Crawler.Attributes.TAGS));
-                Collections.addAll(result, tags);
-            }
-        }
-        return result;
-    }
-
-    private static void createDocType(final OSchema schema, final String doctype) {
-        OClass page = schema.createClass(doctype);
-        page.createProperty(String.valueOf(DocumentAttributes.SHA1), OType.STRING).setNotNull(true);
-        page.createProperty(String.valueOf(DocumentAttributes.SOURCE_URI), OType.STRING).setNotNull(true);
-        page.createProperty(String.valueOf(DocumentAttributes.CACHED), OType.BOOLEAN).setNotNull(true);
-        page.createProperty(String.valueOf(DocumentAttributes.RENDERED), OType.BOOLEAN).setNotNull(true);
-
-        // commented out because for some reason index seems to be written
-        // after the database is closed to this triggers an exception
-        //page.createIndex("uriIdx", OClass.INDEX_TYPE.UNIQUE, "uri");
-        //page.createIndex("renderedIdx", OClass.INDEX_TYPE.NOTUNIQUE, "rendered");
-    }
-
-	public void enter() {
-        ODatabaseRecordThreadLocal.INSTANCE.set(db);
-	}
-
-	public void exit() {
-		ODatabaseRecordThreadLocal.INSTANCE.remove();
-	}
-	
-	
+public interface ContentStore {
+
+    /**
+     * Prepares the store for all registered {@link org.jbake.model.DocumentTypes}.
+     */
+    void updateSchema();
+
+    /**
+     * Closes the store, calling this method more than once has no effect.
+     */
+    void close();
+
+    /**
+     * Frees all resources of the storage backend, which flushes persistent stores to disk. Must be called after
+     * {@link #close()}, calling it more than once has no effect.
+     */
+    void shutdown();
+
+    /**
+     * Deletes all contents of the store.
+     */
+    void drop();
+
+    long getDocumentCount(String docType);
+
+    /**
+     * Counts the modifications of the stored documents. Results computed from the documents stay valid as long as the
+     * generation does not change. Recording signatures with {@link #updateSignature(String, String)} does not modify
+     * documents and keeps the generation.
+     */
+    long getGeneration();
+
+    /**
+     * Retrieves the status of the document with the given source.
+     *
+     * @param docType The document type.
+     * @param uri The URI of the source file.
+     * @return The <code>sha1</code>, <code>rendered</code>, <code>cached</code>, <code>filesize</code>,
+     *         <code>filemodified</code> and <code>parsersignature</code> attributes of the matching documents.
+     */
+    DocumentList getDocumentStatus(String docType, String uri);
+
+    /**
+     * Retrieves the status of all documents of the given type in a single query.
+     *
+     * @param docType The document type.
+     * @return The <code>sourceuri</code>, <code>sha1</code>, <code>rendered</code>, <code>cached</code>,
+     *         <code>filesize</code>, <code>filemodified</code> and <code>parsersignature</code> attributes of all
+     *         documents.
+     */
+    DocumentList getDocumentStatuses(String docType);
+
+    DocumentList getPublishedPosts();
+
+    /**
+     * Published posts having the given tag, newest first, as found in the {@link #getTagIndex()}.
+     */
+    DocumentList getPublishedPostsByTag(String tag);
+
+    DocumentList getPublishedPages();
+
+    /**
+     * Published documents of the given type, newest first.
+     */
+    DocumentList getPublishedContent(String docType);
+
+    /**
+     * All documents of the given type, newest first.
+     */
+    DocumentList getAllContent(String docType);
+
+    /**
+     * A page of all documents of the given type, newest first.
+     *
+     * @param docType The document type.
+     * @param start The index of the first document returned.
+     * @param limit The maximum number of documents returned.
+     */
+    DocumentList getAllContent(String docType, int start, int limit);
+
+    /**
+     * The <code>tags</code> attribute of all published posts.
+     */
+    DocumentList getAllTagsFromPublishedPosts();
+
+    /**
+     * Looks up a signature recorded by {@link #updateSignature(String, String)}.
+     *
+     * @param key The key of the signature.
+     * @return The signature, or <code>null</code> if no signature has been recorded for the key.
+     */
+    String getSignature(String key);
+
+    /**
+     * Records a signature, replacing any signature previously recorded for the same key.
+     *
+     * @param key The key of the signature.
+     * @param sha1 The new signature.
+     */
+    void updateSignature(String key, String sha1);
+
+    DocumentList getUnrenderedContent(String docType);
+
+    /**
+     * Checks whether any document still has to be rendered.
+     */
+    boolean hasUnrenderedContent();
+
+    /**
+     * Adds a document.
+     *
+     * @param docType The document type.
+     * @param document The attributes of the document, the store keeps its own copy.
+     */
+    void addDocument(String docType, Map<String, Object> document);
+
+    /**
+     * Deletes the documents of all types created from the given source file.
+     */
+    void deleteContent(String uri);
+
+    void deleteContent(String docType, String uri);
+
+    void deleteAllByDocType(String docType);
+
+    /**
+     * Records a new size and modification time for the source file of a document whose content did not change.
+     */
+    void updateFileStat(String docType, String uri, long size, long modified);
+
+    /**
+     * Marks all cached documents of the given type as rendered.
+     */
+    void markConentAsRendered(String docType);
+
+    /**
+     * Marks all documents of the given type for re-rendering without parsing them again.
+     */
+    void markContentAsUnrendered(String docType);
+
+    /**
+     * The tags of all published posts, as found in the {@link #getTagIndex()}.
+     */
+    Set<String> getTags();
+
+    /**
+     * The published posts of each tag. The index is built once and kept until the stored documents change.
+     */
+    TagIndex getTagIndex();
+
+    /**
+     * The tags of all published documents.
+     */
+    Set<String> getAllTags();
+
 }
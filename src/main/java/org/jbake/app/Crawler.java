@@ -1,7 +1,6 @@
 package org.jbake.app;
 
 
-import com.orientechnologies.orient.core.record.impl.ODocument;
 import org.apache.commons.configuration.CompositeConfiguration;
 import org.apache.commons.io.FilenameUtils;
 import org.jbake.app.ConfigUtil.Keys;
@@ -13,9 +12,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static java.io.File.separator;
 
@@ -54,10 +61,51 @@ public class Crawler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Crawler.class);
 
+    /**
+     * Ways to detect modified source files, see {@link Keys#CRAWL_VERIFY}.
+     */
+    private enum Verification {
+        /**
+         * Compare the SHA-1 hash of the file contents.
+         */
+        HASH,
+
+        /**
+         * Compare file size and modification time only.
+         */
+        STAT,
+
+        /**
+         * Compare file size and modification time, files with a different stat are hashed to decide whether they
+         * were actually modified.
+         */
+        STAT_HASH;
+
+        static Verification fromConfig(String value) {
+            if (value == null || "hash".equals(value)) {
+                return HASH;
+            } else if ("stat".equals(value)) {
+                return STAT;
+            } else if ("stat+hash".equals(value)) {
+                return STAT_HASH;
+            } else {
+                LOGGER.warn("Unknown value '{}' for {}, falling back to 'hash'.", value, Keys.CRAWL_VERIFY);
+                return HASH;
+            }
+        }
+    }
+
     private CompositeConfiguration config;
     private Parser parser;
     private final ContentStore db;
     private String contentPath;
+    private final Verification verification;
+
+    /**
+     * Status of the documents already in the {@link ContentStore} by source URI, loaded at the start of
+     * {@link #crawl(File)}, <code>null</code> outside of a crawl.
+     */
+    private Map<String, List<StoredDocument>> storedDocuments;
 
     /**
      * Creates new instance of Crawler.
@@ -67,59 +115,217 @@ public class Crawler {
         this.config = config;
         this.contentPath = source.getPath() + separator + config.getString(ConfigUtil.Keys.CONTENT_FOLDER);
         this.parser = new Parser(config, contentPath);
+        this.verification = Verification.fromConfig(config.getString(Keys.CRAWL_VERIFY));
     }
 
     /**
      * Crawl all files and folders looking for content.
      *
+     * <p>
+     * If {@link Keys#CRAWL_THREADS} is greater than one, hashing and parsing of the source files is done on a pool of
+     * worker threads, while the calling thread stays the only one writing to the {@link ContentStore}. Files are
+     * stored in the same order as in a single threaded crawl.
+     * </p>
+     *
      * @param path Folder to start from
      * 
-     * @return The number of processed files.
+     * @return The number of documents that have been parsed and stored, files without a valid header are not counted.
      */
     public int crawl(File path) {
-    	int result = 0;
+        List<File> sourceFiles = new ArrayList<File>();
+        collectSourceFiles(path, sourceFiles);
+
+        storedDocuments = loadStoredDocuments();
+        try {
+            int threads = config.getInt(Keys.CRAWL_THREADS, 1);
+            if (threads > 1 && sourceFiles.size() > 1) {
+                return crawlParallel(sourceFiles, threads);
+            } else {
+                return crawlSerial(sourceFiles);
+            }
+        } finally {
+            storedDocuments = null;
+        }
+    }
+
+    /**
+     * Fetches the status of all documents with one query per document type, instead of one query per source file
+     * and document type.
+     */
+    private Map<String, List<StoredDocument>> loadStoredDocuments() {
+        Map<String, List<StoredDocument>> result = new HashMap<String, List<StoredDocument>>();
+        for (String docType : DocumentTypes.getDocumentTypes()) {
+            for (Map<String, Object> entries : db.getDocumentStatuses(docType)) {
+                String uri = (String) entries.get(String.valueOf(DocumentAttributes.SOURCE_URI));
+                List<StoredDocument> documents = result.get(uri);
+                if (documents == null) {
+                    documents = new ArrayList<StoredDocument>(1);
+                    result.put(uri, documents);
+                }
+                documents.add(new StoredDocument(docType, entries));
+            }
+        }
+        return result;
+    }
+
+    private void collectSourceFiles(File path, List<File> result) {
         File[] contents = path.listFiles(FileUtil.getFileFilter());
         if (contents != null) {
             Arrays.sort(contents);
             for (File sourceFile : contents) {
                 if (sourceFile.isFile()) {
-                    StringBuilder sb = new StringBuilder();
-                    sb.append("Processing [").append(sourceFile.getPath()).append("]... ");
-                    String sha1 = buildHash(sourceFile);
-                    String uri = buildURI(sourceFile);
-                    boolean process = true;
-                    DocumentStatus status = DocumentStatus.NEW;
-                    for (String docType : DocumentTypes.getDocumentTypes()) {
-                        status = findDocumentStatus(docType, uri, sha1);
-                        switch (status) {
-                            case UPDATED:
-                                sb.append(" : modified ");
-                                db.deleteContent(docType, uri);
-                                break;
-                            case IDENTICAL:
-                                sb.append(" : same ");
-                                process = false;
+                    result.add(sourceFile);
+                }
+                if (sourceFile.isDirectory()) {
+                    collectSourceFiles(sourceFile, result);
+                }
+            }
+        }
+    }
+
+    private int crawlSerial(List<File> sourceFiles) {
+        int result = 0;
+        for (File sourceFile : sourceFiles) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Processing [").append(sourceFile.getPath()).append("]... ");
+            String uri = buildURI(sourceFile);
+            String sha1 = unmodifiedHash(sourceFile, uri);
+            if (sha1 == null) {
+                sha1 = buildHash(sourceFile);
+            }
+            if (needsProcessing(sourceFile, uri, sha1, sb)) { // new or updated
+                if (crawlSourceFile(sourceFile, sha1, uri) != null) {
+                    result++;
+                }
+            }
+            LOGGER.info(sb.toString());
+        }
+        return result;
+    }
+
+    private int crawlParallel(List<File> sourceFiles, int threads) {
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(threads, sourceFiles.size()));
+        try {
+            List<String> uris = new ArrayList<String>(sourceFiles.size());
+            List<String> unmodifiedHashes = new ArrayList<String>(sourceFiles.size());
+            List<Future<String>> hashes = new ArrayList<Future<String>>(sourceFiles.size());
+            for (final File sourceFile : sourceFiles) {
+                String uri = buildURI(sourceFile);
+                String unmodifiedHash = unmodifiedHash(sourceFile, uri);
+                uris.add(uri);
+                unmodifiedHashes.add(unmodifiedHash);
+                if (unmodifiedHash == null) {
+                    hashes.add(workers.submit(new Callable<String>() {
+                        @Override
+                        public String call() {
+                            return buildHash(sourceFile);
                         }
-                        if (!process) {
-                            break;
+                    }));
+                } else {
+                    hashes.add(null);
+                }
+            }
+
+            // Decide on the writer thread, which files need to be parsed, the parsing itself is again done by the workers.
+            List<CrawledFile> crawledFiles = new ArrayList<CrawledFile>(sourceFiles.size());
+            for (int n = 0, cnt = sourceFiles.size(); n < cnt; n++) {
+                final File sourceFile = sourceFiles.get(n);
+                String sha1 = unmodifiedHashes.get(n);
+                if (sha1 == null) {
+                    sha1 = await(hashes.get(n));
+                }
+                CrawledFile crawledFile = new CrawledFile(sourceFile, sha1, uris.get(n));
+                if (needsProcessing(sourceFile, crawledFile.uri, crawledFile.sha1, crawledFile.log)) {
+                    crawledFile.contents = workers.submit(new Callable<Map<String, Object>>() {
+                        @Override
+                        public Map<String, Object> call() {
+                            return parser.processFile(sourceFile);
                         }
-                    }
-                    if (DocumentStatus.NEW == status) {
-                        sb.append(" : new ");
-                    }
-                    if (process) { // new or updated
-                        crawlSourceFile(sourceFile, sha1, uri);
+                    });
+                }
+                crawledFiles.add(crawledFile);
+            }
+
+            int result = 0;
+            for (CrawledFile crawledFile : crawledFiles) {
+                if (crawledFile.contents != null) {
+                    if (storeSourceFile(crawledFile.file, crawledFile.sha1, crawledFile.uri, await(crawledFile.contents)) != null) {
                         result++;
                     }
-                    LOGGER.info(sb.toString());
-                }
-                if (sourceFile.isDirectory()) {
-                    result += crawl(sourceFile);
                 }
+                LOGGER.info(crawledFile.log.toString());
             }
+            return result;
+        } finally {
+            workers.shutdownNow();
         }
-        
-        return result;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JBakeException("Crawling content was interrupted.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new JBakeException("Failed to crawl content: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Checks whether the source file with the given URI and hash must be (re-)processed, outdated versions of the
+     * document are removed from the {@link ContentStore}.
+     */
+    private boolean needsProcessing(File sourceFile, String uri, String sha1, StringBuilder sb) {
+        boolean process = true;
+        DocumentStatus status = DocumentStatus.NEW;
+        for (String docType : DocumentTypes.getDocumentTypes()) {
+            status = findDocumentStatus(docType, sourceFile, uri, sha1);
+            switch (status) {
+                case UPDATED:
+                    sb.append(" : modified ");
+                    db.deleteContent(docType, uri);
+                    break;
+                case IDENTICAL:
+                    sb.append(" : same ");
+                    process = false;
+            }
+            if (!process) {
+                break;
+            }
+        }
+        if (DocumentStatus.NEW == status) {
+            sb.append(" : new ");
+        }
+        return process;
+    }
+
+    /**
+     * Looks up the hash of a source file that has not been modified since it was stored, judging from its size and
+     * modification time.
+     *
+     * @return The stored hash, or <code>null</code> if the file must be hashed.
+     */
+    private String unmodifiedHash(final File sourceFile, final String uri) {
+        if (verification == Verification.HASH || storedDocuments == null) {
+            return null;
+        }
+        List<StoredDocument> documents = storedDocuments.get(uri);
+        if (documents == null) {
+            return null;
+        }
+        StoredDocument document = documents.get(0);
+        if (document.hasStat(sourceFile)) {
+            return document.sha1;
+        }
+        return null;
     }
 
     public String buildHash(final File sourceFile) {
@@ -159,11 +365,17 @@ public class Crawler {
     }
     
     public Map<String, Object> crawlSourceFile(final File sourceFile, final String sha1, final String uri) {
-        Map<String, Object> fileContents = parser.processFile(sourceFile);
+        return storeSourceFile(sourceFile, sha1, uri, parser.processFile(sourceFile));
+    }
+
+    private Map<String, Object> storeSourceFile(final File sourceFile, final String sha1, final String uri, final Map<String, Object> fileContents) {
         if (fileContents != null) {
         	fileContents.put(Attributes.ROOTPATH, getPathToRoot(sourceFile));
             fileContents.put(String.valueOf(DocumentAttributes.SHA1), sha1);
+            fileContents.put(String.valueOf(DocumentAttributes.FILE_SIZE), sourceFile.length());
+            fileContents.put(String.valueOf(DocumentAttributes.FILE_MODIFIED), sourceFile.lastModified());
             fileContents.put(String.valueOf(DocumentAttributes.RENDERED), false);
+            fileContents.put(String.valueOf(DocumentAttributes.PARSER_SIGNATURE), parser.configSignature(sourceFile));
             if (fileContents.get(Attributes.TAGS) != null) {
                 // store them as a List<String>
                 String[] tags = (String[]) fileContents.get(Attributes.TAGS);
@@ -188,11 +400,9 @@ public class Crawler {
 
         	db.deleteContent(uri);
 
-            ODocument doc = new ODocument(documentType);
-            doc.fields(fileContents);
             boolean cached = fileContents.get(DocumentAttributes.CACHED) != null ? Boolean.valueOf((String)fileContents.get(DocumentAttributes.CACHED)):true;
-            doc.field(String.valueOf(DocumentAttributes.CACHED), cached);
-            doc.save();
+            fileContents.put(String.valueOf(DocumentAttributes.CACHED), cached);
+            db.addDocument(documentType, fileContents);
             
             return fileContents;
         } else {
@@ -216,18 +426,98 @@ public class Crawler {
     	return sb.toString();
     }
 
-    private DocumentStatus findDocumentStatus(String docType, String uri, String sha1) {
+    /**
+     * A source file in a parallel crawl, whose contents are parsed by a worker thread.
+     */
+    private static class CrawledFile {
+        final File file;
+        final String sha1;
+        final String uri;
+        final StringBuilder log = new StringBuilder();
+        Future<Map<String, Object>> contents;
+
+        CrawledFile(File file, String sha1, String uri) {
+            this.file = file;
+            this.sha1 = sha1;
+            this.uri = uri;
+            log.append("Processing [").append(file.getPath()).append("]... ");
+        }
+    }
+
+    private DocumentStatus findDocumentStatus(String docType, File sourceFile, String uri, String sha1) {
+        if (storedDocuments != null) {
+            List<StoredDocument> documents = storedDocuments.get(uri);
+            if (documents != null) {
+                for (StoredDocument document : documents) {
+                    if (document.docType.equals(docType)) {
+                        return documentStatus(document, sourceFile, uri, sha1);
+                    }
+                }
+            }
+            return DocumentStatus.NEW;
+        }
+
         DocumentList match = db.getDocumentStatus(docType, uri);
         if (!match.isEmpty()) {
-            Map entries = match.get(0);
-            String oldHash = (String) entries.get(String.valueOf(DocumentAttributes.SHA1));
-            if (!(oldHash.equals(sha1)) || Boolean.FALSE.equals(entries.get(String.valueOf(DocumentAttributes.RENDERED)))) {
-                return DocumentStatus.UPDATED;
-            } else {
-                return DocumentStatus.IDENTICAL;
-            }
+            return documentStatus(new StoredDocument(docType, match.get(0)), sourceFile, uri, sha1);
         } else {
             return DocumentStatus.NEW;
         }
     }
+
+    private DocumentStatus documentStatus(StoredDocument document, File sourceFile, String uri, String sha1) {
+        boolean unmodified;
+        switch (verification) {
+            case STAT:
+                unmodified = document.hasStat(sourceFile);
+                break;
+            case STAT_HASH:
+                unmodified = document.hasStat(sourceFile) || document.sha1.equals(sha1);
+                break;
+            default:
+                unmodified = document.sha1.equals(sha1);
+        }
+        // whether the document has been rendered is irrelevant, an unrendered document is rendered from its stored
+        // contents, unless it must not be cached
+        if (!unmodified || !parser.configSignature(sourceFile).equals(document.parserSignature)
+                || Boolean.FALSE.equals(document.cached)) {
+            return DocumentStatus.UPDATED;
+        } else {
+            if (verification == Verification.STAT_HASH && !document.hasStat(sourceFile)) {
+                // touched but not modified, remember the new stat to skip hashing next time
+                db.updateFileStat(document.docType, uri, sourceFile.length(), sourceFile.lastModified());
+            }
+            return DocumentStatus.IDENTICAL;
+        }
+    }
+
+    /**
+     * Status of a document found in the {@link ContentStore}.
+     */
+    private static class StoredDocument {
+        final String docType;
+        final String sha1;
+        final String parserSignature;
+        final Object cached;
+        final Number size;
+        final Number modified;
+
+        StoredDocument(String docType, Map<String, Object> entries) {
+            this.docType = docType;
+            this.sha1 = (String) entries.get(String.valueOf(DocumentAttributes.SHA1));
+            this.parserSignature = (String) entries.get(String.valueOf(DocumentAttributes.PARSER_SIGNATURE));
+            this.cached = entries.get(String.valueOf(DocumentAttributes.CACHED));
+            this.size = (Number) entries.get(String.valueOf(DocumentAttributes.FILE_SIZE));
+            this.modified = (Number) entries.get(String.valueOf(DocumentAttributes.FILE_MODIFIED));
+        }
+
+        /**
+         * Whether the given file still has the size and modification time recorded for this document.
+         */
+        boolean hasStat(File sourceFile) {
+            return size != null && modified != null
+                    && size.longValue() == sourceFile.length()
+                    && modified.longValue() == sourceFile.lastModified();
+        }
+    }
 }
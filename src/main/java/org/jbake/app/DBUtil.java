@@ -1,22 +1,57 @@
 package org.jbake.app;
 
-import com.orientechnologies.orient.core.db.record.OTrackedList;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 
+import java.io.File;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
 public class DBUtil {
+
+    /**
+     * Store type of a {@link MemoryContentStore} that is lost when closed.
+     */
+    public static final String JAVA_STORE = "java";
+
+    /**
+     * Store type of a {@link MemoryContentStore} that is kept in a snapshot file.
+     */
+    public static final String SNAPSHOT_STORE = "snapshot";
+
     private static ContentStore contentStore;
     
+    /**
+     * Creates the {@link ContentStore}, unless it is already open.
+     *
+     * @param type The store type, see {@link ConfigUtil.Keys#DB_STORE}: <code>java</code> or <code>snapshot</code> for
+     *        a {@link MemoryContentStore}, any other value is an OrientDB storage type.
+     * @param name The path of the store.
+     * @return The open store.
+     */
     public static ContentStore createDataStore(final String type, String name) {
         if (contentStore == null) {
-            contentStore = new ContentStore(type, name);
+            if (JAVA_STORE.equals(type)) {
+                contentStore = new MemoryContentStore();
+            } else if (SNAPSHOT_STORE.equals(type)) {
+                contentStore = new MemoryContentStore(new File(name));
+            } else {
+                contentStore = new OrientContentStore(type, name);
+            }
         }
         return contentStore;
     }
     
+    /**
+     * Whether a store of the given type keeps its contents between runs.
+     *
+     * @param type The store type, see {@link #createDataStore(String, String)}.
+     */
+    public static boolean isPersistent(String type) {
+        return !"memory".equals(type) && !JAVA_STORE.equals(type);
+    }
+
     public static void closeDataStore() {
         contentStore = null;
     }
@@ -42,8 +77,8 @@ public class DBUtil {
     public static String[] toStringArray(Object entry) {
     	if (entry instanceof String[]) {
             return (String[]) entry;
-        } else if (entry instanceof OTrackedList) {
-            OTrackedList<String> list = (OTrackedList<String>) entry;
+        } else if (entry instanceof Collection) {
+            Collection<String> list = (Collection<String>) entry;
             return list.toArray(new String[list.size()]);
         }
     	return new String[0];
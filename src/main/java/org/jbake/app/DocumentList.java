@@ -2,17 +2,22 @@ package org.jbake.app;
 
 import com.orientechnologies.orient.core.record.impl.ODocument;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Map;
 
 /**
  * Wraps an OrientDB document iterator into a model usable by
  * template engines.
  *
+ * <p>
+ * The list supports random access, templates may access documents by index at no cost.
+ * </p>
+ *
  * @author Cédric Champeau
  */
-public class DocumentList extends LinkedList<Map<String,Object>> {
+public class DocumentList extends ArrayList<Map<String,Object>> {
 
     public static DocumentList wrap(Iterator<ODocument> docs) {
         DocumentList list = new DocumentList();
@@ -26,4 +31,8 @@ public class DocumentList extends LinkedList<Map<String,Object>> {
     public DocumentList() {
     }
 
+    public DocumentList(Collection<? extends Map<String, Object>> documents) {
+        super(documents);
+    }
+
 }
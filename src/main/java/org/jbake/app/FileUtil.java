@@ -6,11 +6,7 @@ import org.jbake.parser.Engines;
 
 import java.io.File;
 import java.io.FileFilter;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.net.URLDecoder;
-import java.security.MessageDigest;
 
 /**
  * Provides File related functions
@@ -83,36 +79,7 @@ public class FileUtil {
      * @throws Exception
      */
     public static String sha1(File sourceFile) throws Exception {
-        byte[] buffer = new byte[1024];
-        MessageDigest complete = MessageDigest.getInstance("SHA-1");
-        updateDigest(complete, sourceFile, buffer);
-        byte[] bytes = complete.digest();
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
-        }
-        return sb.toString();
-    }
-
-    private static void updateDigest(final MessageDigest digest, final File sourceFile, final byte[] buffer) throws IOException {
-        if (sourceFile.isFile()) {
-            InputStream fis = new FileInputStream(sourceFile);
-            int numRead;
-            do {
-                numRead = fis.read(buffer);
-                if (numRead > 0) {
-                    digest.update(buffer, 0, numRead);
-                }
-            } while (numRead != -1);
-            fis.close();
-        } else if (sourceFile.isDirectory()) {
-            File[] files = sourceFile.listFiles();
-            if (files!=null) {
-                for (File file : files) {
-                    updateDigest(digest, file, buffer);
-                }
-            }
-        }
+        return HashUtil.sha1(sourceFile);
     }
 
     public static String findExtension(CompositeConfiguration config, String docType) {
@@ -0,0 +1,242 @@
+package org.jbake.app;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Computes SHA-1 hashes of files and directories.
+ *
+ * <p>
+ * The hash of a file is the SHA-1 of its contents. The hash of a directory is computed over the relative paths and
+ * content hashes of all files below it, sorted by their relative path, so it neither depends on the order in which
+ * the platform lists directory entries nor on how it orders file names.
+ * </p>
+ */
+public class HashUtil {
+
+    private static final String ALGORITHM = "SHA-1";
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Files of at least this size are memory-mapped instead of being read into a buffer.
+     */
+    private static final long MAP_THRESHOLD = 1024 * 1024;
+
+    /**
+     * Size of the regions mapped at once for large files.
+     */
+    private static final long MAP_CHUNK = 64 * 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Computes the hash of a file or directory.
+     *
+     * @param file The file or directory.
+     * @return A hex string representing the SHA-1 hash.
+     * @throws IOException If reading a file fails.
+     */
+    public static String sha1(File file) throws IOException {
+        return sha1(file, 1);
+    }
+
+    /**
+     * Computes the hash of a file or directory.
+     *
+     * @param file The file or directory.
+     * @param threads The number of threads used to hash the files of a directory.
+     * @return A hex string representing the SHA-1 hash.
+     * @throws IOException If reading a file fails.
+     */
+    public static String sha1(File file, int threads) throws IOException {
+        if (file.isFile()) {
+            return toHex(digest(file));
+        }
+
+        MessageDigest digest = newDigest();
+        for (Map.Entry<String, String> entry : sha1Files(file, threads).entrySet()) {
+            digest.update(entry.getKey().getBytes(UTF8));
+            digest.update((byte) 0);
+            digest.update(entry.getValue().getBytes(UTF8));
+            digest.update((byte) '\n');
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Computes the hashes of all files below a directory.
+     *
+     * @param dir The directory.
+     * @param threads The number of threads used to hash the files.
+     * @return The hashes by path relative to the directory, using <code>/</code> as separator, sorted by path.
+     * @throws IOException If reading a file fails.
+     */
+    public static Map<String, String> sha1Files(File dir, int threads) throws IOException {
+        Map<String, File> files = new TreeMap<String, File>();
+        collectFiles(dir, "", files);
+
+        List<File> list = new ArrayList<File>(files.values());
+        String[] hashes = threads > 1 && list.size() > 1 ? hashParallel(list, threads) : hashSerial(list);
+
+        Map<String, String> result = new LinkedHashMap<String, String>();
+        int n = 0;
+        for (String path : files.keySet()) {
+            result.put(path, hashes[n++]);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the hash of the given bytes.
+     *
+     * @param content The bytes to hash.
+     * @return A hex string representing the SHA-1 hash.
+     */
+    public static String sha1(byte[] content) {
+        return toHex(newDigest().digest(content));
+    }
+
+    /**
+     * Computes the hash of a sequence of strings.
+     *
+     * @param values The strings, <code>null</code> values are allowed.
+     * @return A hex string representing the SHA-1 hash, which depends on the order of the values.
+     */
+    public static String sha1(Iterable<String> values) {
+        MessageDigest digest = newDigest();
+        for (String value : values) {
+            digest.update(String.valueOf(value).getBytes(UTF8));
+            digest.update((byte) 0);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Converts the given bytes to a lower case hex string.
+     */
+    public static String toHex(byte[] bytes) {
+        char[] result = new char[bytes.length * 2];
+        for (int n = 0; n < bytes.length; n++) {
+            int b = bytes[n] & 0xFF;
+            result[2 * n] = HEX[b >>> 4];
+            result[2 * n + 1] = HEX[b & 0x0F];
+        }
+        return new String(result);
+    }
+
+    private static void collectFiles(File dir, String prefix, Map<String, File> files) {
+        File[] contents = dir.listFiles();
+        if (contents == null) {
+            return;
+        }
+        for (File content : contents) {
+            String path = prefix + content.getName();
+            if (content.isFile()) {
+                files.put(path, content);
+            } else if (content.isDirectory()) {
+                collectFiles(content, path + "/", files);
+            }
+        }
+    }
+
+    private static String[] hashSerial(List<File> files) throws IOException {
+        String[] result = new String[files.size()];
+        for (int n = 0, cnt = files.size(); n < cnt; n++) {
+            result[n] = toHex(digest(files.get(n)));
+        }
+        return result;
+    }
+
+    private static String[] hashParallel(List<File> files, int threads) throws IOException {
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(threads, files.size()));
+        try {
+            List<Future<String>> futures = new ArrayList<Future<String>>(files.size());
+            for (final File file : files) {
+                futures.add(workers.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws IOException {
+                        return toHex(digest(file));
+                    }
+                }));
+            }
+
+            String[] result = new String[files.size()];
+            for (int n = 0, cnt = futures.size(); n < cnt; n++) {
+                result[n] = futures.get(n).get();
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Hashing was interrupted.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private static byte[] digest(File file) throws IOException {
+        MessageDigest digest = newDigest();
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            long size = channel.size();
+            if (size >= MAP_THRESHOLD) {
+                for (long position = 0; position < size; position += MAP_CHUNK) {
+                    MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_CHUNK, size - position));
+                    digest.update(region);
+                }
+            } else {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                while (channel.read(buffer) != -1) {
+                    buffer.flip();
+                    digest.update(buffer);
+                    buffer.clear();
+                }
+            }
+        } finally {
+            in.close();
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
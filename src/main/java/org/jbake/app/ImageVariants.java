@@ -0,0 +1,269 @@
+package org.jbake.app;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.apache.commons.configuration.Configuration;
+import org.jbake.app.ConfigUtil.Keys;
+import org.jbake.util.OutputTracker;
+
+/**
+ * Generates scaled down variants of image assets for responsive images.
+ *
+ * <p>
+ * For each configured width smaller than the image, a variant named <code>&lt;name&gt;-&lt;width&gt;w.&lt;ext&gt;</code>
+ * is written next to the copy of the image. If a thumbnail size is configured, a variant named
+ * <code>&lt;name&gt;-thumb.&lt;ext&gt;</code> fitting into a square of that size is written as well. Images are
+ * decoded and encoded with {@link ImageIO}, images it cannot read are left alone. Instances are immutable and may be
+ * used by several threads at once.
+ * </p>
+ *
+ * @see Asset
+ */
+public class ImageVariants {
+
+	/**
+	 * The variants written for an image.
+	 */
+	public static class Result {
+
+		private final int width;
+
+		private final List<File> files = new ArrayList<File>();
+
+		private final List<Integer> widths = new ArrayList<Integer>();
+
+		private File thumbnail;
+
+		Result(int width) {
+			this.width = width;
+		}
+
+		/**
+		 * The width of the original image.
+		 */
+		public int getWidth() {
+			return width;
+		}
+
+		/**
+		 * The width variants, smallest first.
+		 */
+		public List<File> getFiles() {
+			return files;
+		}
+
+		/**
+		 * The widths of the {@link #getFiles() width variants}.
+		 */
+		public List<Integer> getWidths() {
+			return widths;
+		}
+
+		/**
+		 * The thumbnail, <code>null</code> if no thumbnail is configured.
+		 */
+		public File getThumbnail() {
+			return thumbnail;
+		}
+	}
+
+	private static final String THUMBNAIL_SUFFIX = "-thumb";
+
+	private final Set<String> extensions;
+
+	private final List<Integer> widths;
+
+	private final int thumbnailSize;
+
+	private final float quality;
+
+	/**
+	 * Creates {@link ImageVariants}.
+	 *
+	 * @param extensions
+	 *        The extensions of the image files to process, in lower case without dot.
+	 * @param widths
+	 *        The widths of the variants.
+	 * @param thumbnailSize
+	 *        The size of the square thumbnails fit into, <code>0</code> for no thumbnails.
+	 * @param quality
+	 *        The JPEG compression quality from 0 to 1.
+	 */
+	public ImageVariants(Set<String> extensions, List<Integer> widths, int thumbnailSize, float quality) {
+		this.extensions = extensions;
+		this.widths = new ArrayList<Integer>(new TreeSet<Integer>(widths));
+		this.thumbnailSize = thumbnailSize;
+		this.quality = quality;
+	}
+
+	/**
+	 * Creates the {@link ImageVariants} configured by {@link Keys#ASSET_IMAGE_WIDTHS} and
+	 * {@link Keys#ASSET_IMAGE_THUMBNAIL}.
+	 *
+	 * @return The variants to generate, or <code>null</code> if no variants are configured.
+	 */
+	public static ImageVariants fromConfig(Configuration config) {
+		List<Integer> widths = new ArrayList<Integer>();
+		for (String width : config.getStringArray(Keys.ASSET_IMAGE_WIDTHS)) {
+			if (!width.trim().isEmpty()) {
+				widths.add(Integer.valueOf(width.trim()));
+			}
+		}
+		int thumbnailSize = config.getInt(Keys.ASSET_IMAGE_THUMBNAIL, 0);
+		if (widths.isEmpty() && thumbnailSize <= 0) {
+			return null;
+		}
+		Set<String> extensions = new TreeSet<String>();
+		for (String extension : config.getStringArray(Keys.ASSET_IMAGE_EXTENSIONS)) {
+			if (!extension.trim().isEmpty()) {
+				extensions.add(extension.trim().toLowerCase());
+			}
+		}
+		return new ImageVariants(extensions, widths, thumbnailSize, config.getFloat(Keys.ASSET_IMAGE_QUALITY, 0.85f));
+	}
+
+	/**
+	 * Whether variants are generated for the given file.
+	 */
+	public boolean appliesTo(File file) {
+		String extension = extension(file);
+		return extension != null && extensions.contains(extension);
+	}
+
+	/**
+	 * Describes the variants generated, generated files must be replaced if it changes.
+	 */
+	public String getSpec() {
+		return "widths=" + widths + ";thumbnail=" + thumbnailSize + ";quality=" + quality;
+	}
+
+	/**
+	 * Writes the variants of an image.
+	 *
+	 * @param source
+	 *        The image.
+	 * @param copy
+	 *        The copy of the image, the variants are written next to it.
+	 * @param output
+	 *        The {@link OutputTracker} to write through.
+	 * @return The variants, or <code>null</code> if the image cannot be read.
+	 */
+	public Result generate(File source, File copy, OutputTracker output) throws IOException {
+		BufferedImage image = ImageIO.read(source);
+		if (image == null) {
+			return null;
+		}
+		String format = format(copy);
+		int width = image.getWidth();
+		int height = image.getHeight();
+		Result result = new Result(width);
+		for (Integer variantWidth : widths) {
+			if (variantWidth >= width) {
+				break;
+			}
+			int variantHeight = Math.max(1, Math.round((float) height * variantWidth / width));
+			File file = variantFile(copy, "-" + variantWidth + "w");
+			output.write(file, encode(scale(image, variantWidth, variantHeight, format), format), source.getPath());
+			result.files.add(file);
+			result.widths.add(variantWidth);
+		}
+		if (thumbnailSize > 0) {
+			float factor = Math.min(1f, (float) thumbnailSize / Math.max(width, height));
+			int thumbnailWidth = Math.max(1, Math.round(width * factor));
+			int thumbnailHeight = Math.max(1, Math.round(height * factor));
+			result.thumbnail = variantFile(copy, THUMBNAIL_SUFFIX);
+			output.write(result.thumbnail, encode(scale(image, thumbnailWidth, thumbnailHeight, format), format),
+					source.getPath());
+		}
+		return result;
+	}
+
+	/**
+	 * Scales the given image down in steps of at most half the size, which keeps the quality of bilinear
+	 * interpolation for large reductions.
+	 */
+	private static BufferedImage scale(BufferedImage image, int width, int height, String format) {
+		boolean opaque = "jpeg".equals(format) || !image.getColorModel().hasAlpha();
+		int type = opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+		BufferedImage current = image;
+		int currentWidth = image.getWidth();
+		int currentHeight = image.getHeight();
+		do {
+			currentWidth = Math.max(width, currentWidth / 2);
+			currentHeight = Math.max(height, currentHeight / 2);
+			BufferedImage next = new BufferedImage(currentWidth, currentHeight, type);
+			Graphics2D g = next.createGraphics();
+			try {
+				g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+				g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+				if (opaque) {
+					g.setColor(Color.WHITE);
+					g.fillRect(0, 0, currentWidth, currentHeight);
+				}
+				g.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+			} finally {
+				g.dispose();
+			}
+			current = next;
+		} while (currentWidth != width || currentHeight != height);
+		return current;
+	}
+
+	private byte[] encode(BufferedImage image, String format) throws IOException {
+		Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+		if (!writers.hasNext()) {
+			throw new IOException("No image writer for format: " + format);
+		}
+		ImageWriter writer = writers.next();
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		ImageOutputStream out = ImageIO.createImageOutputStream(buffer);
+		try {
+			writer.setOutput(out);
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			if ("jpeg".equals(format)) {
+				param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+				param.setCompressionQuality(quality);
+			}
+			writer.write(null, new IIOImage(image, null, null), param);
+		} finally {
+			writer.dispose();
+			out.close();
+		}
+		return buffer.toByteArray();
+	}
+
+	private static File variantFile(File copy, String suffix) {
+		String name = copy.getName();
+		int dot = name.lastIndexOf('.');
+		return new File(copy.getParentFile(), name.substring(0, dot) + suffix + name.substring(dot));
+	}
+
+	private static String format(File file) {
+		String extension = extension(file);
+		return "jpg".equals(extension) ? "jpeg" : extension;
+	}
+
+	private static String extension(File file) {
+		String name = file.getName();
+		int dot = name.lastIndexOf('.');
+		return dot > 0 ? name.substring(dot + 1).toLowerCase() : null;
+	}
+
+}
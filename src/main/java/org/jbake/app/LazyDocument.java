@@ -0,0 +1,188 @@
+package org.jbake.app;
+
+import java.lang.ref.SoftReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A document model whose largest attribute, usually the <code>body</code>, is only loaded when it is requested.
+ *
+ * <p>
+ * The loaded value is only softly referenced, so that a list of documents used by a template does not keep the
+ * bodies of all documents in memory. Setting the lazy attribute explicitly replaces the loader.
+ * </p>
+ */
+public class LazyDocument extends AbstractMap<String, Object> {
+
+    /**
+     * Loads the value of the lazy attribute of a document.
+     */
+    public interface Loader {
+
+        /**
+         * Loads the current value of the attribute.
+         */
+        Object load();
+    }
+
+    private final Map<String, Object> fields;
+
+    private final String lazyKey;
+
+    private Loader loader;
+
+    private SoftReference<Object> loaded;
+
+    private Set<Entry<String, Object>> entrySet;
+
+    /**
+     * Creates a {@link LazyDocument}.
+     *
+     * @param fields All other attributes of the document, the map is used directly.
+     * @param lazyKey The name of the attribute loaded on demand.
+     * @param loader Loads the value of the lazy attribute.
+     */
+    public LazyDocument(Map<String, Object> fields, String lazyKey, Loader loader) {
+        this.fields = fields;
+        this.lazyKey = lazyKey;
+        this.loader = loader;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (isLazy(key)) {
+            return loadValue();
+        }
+        return fields.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return isLazy(key) || fields.containsKey(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (isLazy(key)) {
+            Object before = loadValue();
+            loader = null;
+            loaded = null;
+            fields.put(key, value);
+            return before;
+        }
+        return fields.put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (isLazy(key)) {
+            Object before = loadValue();
+            loader = null;
+            loaded = null;
+            return before;
+        }
+        return fields.remove(key);
+    }
+
+    @Override
+    public int size() {
+        return loader != null ? fields.size() + 1 : fields.size();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private boolean isLazy(Object key) {
+        return loader != null && lazyKey.equals(key);
+    }
+
+    private synchronized Object loadValue() {
+        Object value = loaded == null ? null : loaded.get();
+        if (value == null) {
+            value = loader.load();
+            loaded = new SoftReference<Object>(value);
+        }
+        return value;
+    }
+
+    private class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+        @Override
+        public int size() {
+            return LazyDocument.this.size();
+        }
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            final Iterator<Entry<String, Object>> fieldEntries = fields.entrySet().iterator();
+            return new Iterator<Entry<String, Object>>() {
+                private boolean lazyPending = loader != null;
+
+                @Override
+                public boolean hasNext() {
+                    return fieldEntries.hasNext() || lazyPending;
+                }
+
+                @Override
+                public Entry<String, Object> next() {
+                    if (fieldEntries.hasNext()) {
+                        return fieldEntries.next();
+                    }
+                    if (!lazyPending) {
+                        throw new NoSuchElementException();
+                    }
+                    lazyPending = false;
+                    return new LazyEntry();
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+
+    private class LazyEntry implements Entry<String, Object> {
+
+        @Override
+        public String getKey() {
+            return lazyKey;
+        }
+
+        @Override
+        public Object getValue() {
+            return get(lazyKey);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            return put(lazyKey, value);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) other;
+            Object value = getValue();
+            return lazyKey.equals(entry.getKey()) && (value == null ? entry.getValue() == null : value.equals(entry.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return lazyKey.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+    }
+}
@@ -0,0 +1,602 @@
+package org.jbake.app;
+
+import org.jbake.app.Crawler.Attributes;
+import org.jbake.model.DocumentAttributes;
+import org.jbake.model.DocumentTypes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * {@link ContentStore} keeping all documents in the Java heap, without starting a database engine.
+ *
+ * <p>
+ * The documents of each type are indexed by source file, date, tag and render flag. If a folder is given, the
+ * contents are loaded from a snapshot in that folder when the store is created and written back when it is closed, so
+ * that a later bake only processes the files that have changed in between.
+ * </p>
+ */
+public class MemoryContentStore implements ContentStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemoryContentStore.class);
+
+    /**
+     * Name of the snapshot file in the store folder.
+     */
+    static final String SNAPSHOT_NAME = "contentstore.ser";
+
+    /**
+     * Incremented whenever the layout of the snapshot changes, older snapshots are ignored.
+     */
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static final String[] STATUS_ATTRIBUTES = {
+            String.valueOf(DocumentAttributes.SHA1),
+            String.valueOf(DocumentAttributes.RENDERED),
+            String.valueOf(DocumentAttributes.CACHED),
+            String.valueOf(DocumentAttributes.FILE_SIZE),
+            String.valueOf(DocumentAttributes.FILE_MODIFIED),
+            String.valueOf(DocumentAttributes.PARSER_SIGNATURE)
+    };
+
+    private final File snapshot;
+
+    private final Map<String, Table> tables = new TreeMap<String, Table>();
+
+    private final Map<String, String> signatures = new HashMap<String, String>();
+
+    private volatile long generation;
+
+    private TagIndex tagIndex;
+    private long tagIndexGeneration;
+
+    private boolean closed;
+
+    /**
+     * Creates a store that is lost when closed.
+     */
+    public MemoryContentStore() {
+        this(null);
+    }
+
+    /**
+     * Creates a store that is kept in the given folder.
+     *
+     * @param folder The folder to keep the snapshot in, or <code>null</code> for a store that is lost when closed.
+     */
+    public MemoryContentStore(File folder) {
+        this.snapshot = folder == null ? null : new File(folder, SNAPSHOT_NAME);
+        if (snapshot != null && snapshot.isFile()) {
+            loadSnapshot();
+        }
+    }
+
+    @Override
+    public synchronized void updateSchema() {
+        for (String docType : DocumentTypes.getDocumentTypes()) {
+            table(docType);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            if (snapshot != null) {
+                saveSnapshot();
+            }
+        }
+        DBUtil.closeDataStore();
+    }
+
+    @Override
+    public void shutdown() {
+        // no engine to shut down
+    }
+
+    @Override
+    public synchronized void drop() {
+        generation++;
+        tables.clear();
+        signatures.clear();
+        if (snapshot != null && snapshot.exists() && !snapshot.delete()) {
+            LOGGER.warn("Failed to delete content store snapshot: {}", snapshot);
+        }
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public synchronized long getDocumentCount(String docType) {
+        Table table = tables.get(docType);
+        return table == null ? 0 : table.documents.size();
+    }
+
+    @Override
+    public synchronized DocumentList getDocumentStatus(String docType, String uri) {
+        DocumentList result = new DocumentList();
+        Table table = tables.get(docType);
+        if (table != null) {
+            for (Long id : table.bySourceUri(uri)) {
+                result.add(project(table.documents.get(id), STATUS_ATTRIBUTES));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized DocumentList getDocumentStatuses(String docType) {
+        DocumentList result = new DocumentList();
+        Table table = tables.get(docType);
+        if (table != null) {
+            for (Map<String, Object> document : table.documents.values()) {
+                Map<String, Object> status = project(document, STATUS_ATTRIBUTES);
+                status.put(String.valueOf(DocumentAttributes.SOURCE_URI), document.get(String.valueOf(DocumentAttributes.SOURCE_URI)));
+                result.add(status);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public DocumentList getPublishedPosts() {
+        return getPublishedContent("post");
+    }
+
+    @Override
+    public DocumentList getPublishedPostsByTag(String tag) {
+        return getTagIndex().getPosts(tag);
+    }
+
+    @Override
+    public DocumentList getPublishedPages() {
+        return getPublishedContent("page");
+    }
+
+    @Override
+    public synchronized DocumentList getPublishedContent(String docType) {
+        Table table = tables.get(docType);
+        if (table == null) {
+            return new DocumentList();
+        }
+        return select(table, table.byDate, true, -1, -1);
+    }
+
+    @Override
+    public synchronized DocumentList getAllContent(String docType) {
+        Table table = tables.get(docType);
+        if (table == null) {
+            return new DocumentList();
+        }
+        return select(table, table.byDate, false, -1, -1);
+    }
+
+    @Override
+    public synchronized DocumentList getAllContent(String docType, int start, int limit) {
+        Table table = tables.get(docType);
+        if (table == null) {
+            return new DocumentList();
+        }
+        return select(table, table.byDate, false, start, limit);
+    }
+
+    @Override
+    public synchronized DocumentList getAllTagsFromPublishedPosts() {
+        DocumentList result = new DocumentList();
+        Table table = tables.get("post");
+        if (table != null) {
+            for (Map<String, Object> document : table.documents.values()) {
+                if (isPublished(document)) {
+                    result.add(project(document, Attributes.TAGS));
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized String getSignature(String key) {
+        return signatures.get(key);
+    }
+
+    @Override
+    public synchronized void updateSignature(String key, String sha1) {
+        signatures.put(key, sha1);
+    }
+
+    @Override
+    public synchronized DocumentList getUnrenderedContent(String docType) {
+        Table table = tables.get(docType);
+        if (table == null) {
+            return new DocumentList();
+        }
+        return select(table, table.unrendered, false, -1, -1);
+    }
+
+    @Override
+    public synchronized boolean hasUnrenderedContent() {
+        for (Table table : tables.values()) {
+            if (!table.unrendered.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized void addDocument(String docType, Map<String, Object> document) {
+        generation++;
+        table(docType).add(copy(document));
+    }
+
+    @Override
+    public synchronized void deleteContent(String uri) {
+        generation++;
+        for (Table table : tables.values()) {
+            table.removeBySourceUri(uri);
+        }
+    }
+
+    @Override
+    public synchronized void deleteContent(String docType, String uri) {
+        generation++;
+        Table table = tables.get(docType);
+        if (table != null) {
+            table.removeBySourceUri(uri);
+        }
+    }
+
+    @Override
+    public synchronized void deleteAllByDocType(String docType) {
+        generation++;
+        tables.remove(docType);
+    }
+
+    @Override
+    public synchronized void updateFileStat(String docType, String uri, long size, long modified) {
+        generation++;
+        Table table = tables.get(docType);
+        if (table != null) {
+            for (Long id : table.bySourceUri(uri)) {
+                Map<String, Object> document = table.documents.get(id);
+                document.put(String.valueOf(DocumentAttributes.FILE_SIZE), size);
+                document.put(String.valueOf(DocumentAttributes.FILE_MODIFIED), modified);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void markConentAsRendered(String docType) {
+        generation++;
+        Table table = tables.get(docType);
+        if (table != null) {
+            for (Iterator<Long> it = table.unrendered.iterator(); it.hasNext(); ) {
+                Map<String, Object> document = table.documents.get(it.next());
+                if (Boolean.TRUE.equals(document.get(String.valueOf(DocumentAttributes.CACHED)))) {
+                    document.put(String.valueOf(DocumentAttributes.RENDERED), Boolean.TRUE);
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void markContentAsUnrendered(String docType) {
+        generation++;
+        Table table = tables.get(docType);
+        if (table != null) {
+            for (Map.Entry<Long, Map<String, Object>> entry : table.documents.entrySet()) {
+                entry.getValue().put(String.valueOf(DocumentAttributes.RENDERED), Boolean.FALSE);
+                table.unrendered.add(entry.getKey());
+            }
+        }
+    }
+
+    @Override
+    public Set<String> getTags() {
+        return getTagIndex().getTags();
+    }
+
+    @Override
+    public synchronized TagIndex getTagIndex() {
+        if (tagIndex == null || tagIndexGeneration != generation) {
+            tagIndexGeneration = generation;
+            Table table = tables.get("post");
+            tagIndex = TagIndex.create(table == null ? new DocumentList() : select(table, table.byDate, true, -1, -1));
+        }
+        return tagIndex;
+    }
+
+    @Override
+    public Set<String> getAllTags() {
+        return collectTags(Arrays.asList(DocumentTypes.getDocumentTypes()));
+    }
+
+    private synchronized Set<String> collectTags(Collection<String> docTypes) {
+        Set<String> result = new HashSet<String>();
+        for (String docType : docTypes) {
+            Table table = tables.get(docType);
+            if (table == null) {
+                continue;
+            }
+            for (Map.Entry<String, SortedSet<Long>> entry : table.byTag.entrySet()) {
+                for (Long id : entry.getValue()) {
+                    if (isPublished(table.documents.get(id))) {
+                        result.add(entry.getKey());
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private Table table(String docType) {
+        Table table = tables.get(docType);
+        if (table == null) {
+            table = new Table();
+            tables.put(docType, table);
+        }
+        return table;
+    }
+
+    private static DocumentList select(Table table, Collection<Long> ids, boolean publishedOnly, long start, long limit) {
+        boolean paginate = start >= 0 && limit > -1;
+        DocumentList result = new DocumentList();
+        long skip = paginate ? start : 0;
+        for (Long id : ids) {
+            if (paginate && result.size() >= limit) {
+                break;
+            }
+            Map<String, Object> document = table.documents.get(id);
+            if (publishedOnly && !isPublished(document)) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            result.add(copy(document));
+        }
+        return result;
+    }
+
+    private static boolean isPublished(Map<String, Object> document) {
+        return Attributes.Status.PUBLISHED.equals(document.get(Attributes.STATUS));
+    }
+
+    private static Map<String, Object> project(Map<String, Object> document, String... attributes) {
+        Map<String, Object> result = new HashMap<String, Object>();
+        for (String attribute : attributes) {
+            result.put(attribute, copyValue(document.get(attribute)));
+        }
+        return result;
+    }
+
+    /**
+     * Copies a document, so that neither the caller nor the store see modifications of the other.
+     */
+    private static Map<String, Object> copy(Map<String, Object> document) {
+        Map<String, Object> result = new HashMap<String, Object>();
+        for (Map.Entry<String, Object> entry : document.entrySet()) {
+            result.put(entry.getKey(), copyValue(entry.getValue()));
+        }
+        return result;
+    }
+
+    private static Object copyValue(Object value) {
+        if (value instanceof List) {
+            return new ArrayList<Object>((List<?>) value);
+        }
+        if (value instanceof Date) {
+            return new Date(((Date) value).getTime());
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadSnapshot() {
+        try {
+            ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(snapshot)));
+            try {
+                if (in.readInt() != SNAPSHOT_VERSION) {
+                    LOGGER.info("Ignoring content store snapshot of an older version: {}", snapshot);
+                    return;
+                }
+                Map<String, List<Map<String, Object>>> documents = (Map<String, List<Map<String, Object>>>) in.readObject();
+                Map<String, String> savedSignatures = (Map<String, String>) in.readObject();
+                for (Map.Entry<String, List<Map<String, Object>>> entry : documents.entrySet()) {
+                    Table table = table(entry.getKey());
+                    for (Map<String, Object> document : entry.getValue()) {
+                        table.add(document);
+                    }
+                }
+                signatures.putAll(savedSignatures);
+            } finally {
+                in.close();
+            }
+        } catch (Exception e) {
+            // a stale or damaged snapshot only costs a full bake
+            LOGGER.warn("Failed to load content store snapshot " + snapshot + ", starting with an empty store.", e);
+            tables.clear();
+            signatures.clear();
+        }
+    }
+
+    private void saveSnapshot() {
+        Map<String, List<Map<String, Object>>> documents = new TreeMap<String, List<Map<String, Object>>>();
+        for (Map.Entry<String, Table> entry : tables.entrySet()) {
+            documents.put(entry.getKey(), new ArrayList<Map<String, Object>>(entry.getValue().documents.values()));
+        }
+
+        File folder = snapshot.getParentFile();
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            LOGGER.warn("Failed to create folder for content store snapshot: {}", folder);
+            return;
+        }
+        File tmp = new File(folder, SNAPSHOT_NAME + ".tmp");
+        try {
+            ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeObject(documents);
+                out.writeObject(new HashMap<String, String>(signatures));
+            } finally {
+                out.close();
+            }
+            if (snapshot.exists() && !snapshot.delete()) {
+                throw new IOException("Cannot replace " + snapshot);
+            }
+            if (!tmp.renameTo(snapshot)) {
+                throw new IOException("Cannot rename " + tmp + " to " + snapshot);
+            }
+        } catch (IOException e) {
+            // e.g. documents with attributes that cannot be serialized, the next bake starts from scratch
+            LOGGER.warn("Failed to write content store snapshot " + snapshot + ".", e);
+            tmp.delete();
+            snapshot.delete();
+        }
+    }
+
+    /**
+     * The documents of one type.
+     */
+    private static final class Table {
+
+        private long nextId;
+
+        /**
+         * Documents by ID, in the order they have been added.
+         */
+        final Map<Long, Map<String, Object>> documents = new LinkedHashMap<Long, Map<String, Object>>();
+
+        final Map<String, Set<Long>> bySourceUri = new HashMap<String, Set<Long>>();
+
+        /**
+         * Documents ordered by descending date, documents without date go last.
+         */
+        final Comparator<Long> newestFirst = new Comparator<Long>() {
+            @Override
+            public int compare(Long id1, Long id2) {
+                Date date1 = date(documents.get(id1));
+                Date date2 = date(documents.get(id2));
+                if (date1 != null && date2 != null) {
+                    int result = date2.compareTo(date1);
+                    if (result != 0) {
+                        return result;
+                    }
+                } else if (date1 != null) {
+                    return -1;
+                } else if (date2 != null) {
+                    return 1;
+                }
+                return id1.compareTo(id2);
+            }
+        };
+
+        final SortedSet<Long> byDate = new TreeSet<Long>(newestFirst);
+
+        final Map<String, SortedSet<Long>> byTag = new HashMap<String, SortedSet<Long>>();
+
+        /**
+         * Documents not yet rendered, in the order they have been added.
+         */
+        final SortedSet<Long> unrendered = new TreeSet<Long>();
+
+        void add(Map<String, Object> document) {
+            Long id = nextId++;
+            documents.put(id, document);
+            String uri = sourceUri(document);
+            Set<Long> sameUri = bySourceUri.get(uri);
+            if (sameUri == null) {
+                sameUri = new TreeSet<Long>();
+                bySourceUri.put(uri, sameUri);
+            }
+            sameUri.add(id);
+            byDate.add(id);
+            for (String tag : tags(document)) {
+                SortedSet<Long> tagged = byTag.get(tag);
+                if (tagged == null) {
+                    tagged = new TreeSet<Long>(newestFirst);
+                    byTag.put(tag, tagged);
+                }
+                tagged.add(id);
+            }
+            if (!Boolean.TRUE.equals(document.get(String.valueOf(DocumentAttributes.RENDERED)))) {
+                unrendered.add(id);
+            }
+        }
+
+        Collection<Long> bySourceUri(String uri) {
+            Set<Long> result = bySourceUri.get(uri);
+            return result == null ? Collections.<Long>emptySet() : result;
+        }
+
+        void removeBySourceUri(String uri) {
+            Set<Long> ids = bySourceUri.remove(uri);
+            if (ids == null) {
+                return;
+            }
+            for (Long id : ids) {
+                // remove from the sorted indexes first, their order depends on the document
+                Map<String, Object> document = documents.get(id);
+                byDate.remove(id);
+                for (String tag : tags(document)) {
+                    SortedSet<Long> tagged = byTag.get(tag);
+                    tagged.remove(id);
+                    if (tagged.isEmpty()) {
+                        byTag.remove(tag);
+                    }
+                }
+                unrendered.remove(id);
+                documents.remove(id);
+            }
+        }
+
+        private static String sourceUri(Map<String, Object> document) {
+            return (String) document.get(String.valueOf(DocumentAttributes.SOURCE_URI));
+        }
+
+        private static Date date(Map<String, Object> document) {
+            Object date = document.get(Attributes.DATE);
+            return date instanceof Date ? (Date) date : null;
+        }
+
+        private static Set<String> tags(Map<String, Object> document) {
+            Set<String> result = new TreeSet<String>();
+            for (String tag : DBUtil.toStringArray(document.get(Attributes.TAGS))) {
+                if (tag != null) {
+                    result.add(tag);
+                }
+            }
+            return result;
+        }
+    }
+}
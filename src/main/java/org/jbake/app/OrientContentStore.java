@@ -0,0 +1,426 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 jdlee.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jbake.app;
+
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.command.OCommandResultListener;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentPool;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.OCommandSQL;
+import com.orientechnologies.orient.core.sql.query.OSQLAsynchQuery;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import org.jbake.model.DocumentAttributes;
+import org.jbake.model.DocumentTypes;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link ContentStore} backed by an OrientDB database, either kept in memory or persisted to disk.
+ *
+ * <p>
+ * Database access is serialized on the store instance, so documents may be rendered from several threads at once.
+ * </p>
+ *
+ * @author jdlee
+ */
+public class OrientContentStore implements ContentStore {
+
+    private ODatabaseDocumentTx db;
+    private volatile long generation;
+
+    private TagIndex tagIndex;
+    private long tagIndexGeneration;
+
+    public OrientContentStore(final String type, String name) {
+        startupIfEnginesAreMissing();
+        String url = type + ":" + name;
+        ODatabaseDocumentTx created = new ODatabaseDocumentTx(url);
+        boolean exists = created.exists();
+        if (!exists) {
+            created.create();
+            // all further access goes through the pooled connection
+            created.close();
+        }
+        db = ODatabaseDocumentPool.global().acquire(url, "admin", "admin");
+        ODatabaseRecordThreadLocal.INSTANCE.set(db);
+        if (!exists) {
+            updateSchema();
+        }
+    }
+
+    @Override
+    public final synchronized void updateSchema() {
+        enter();
+        OSchema schema = db.getMetadata().getSchema();
+        for (String docType : DocumentTypes.getDocumentTypes()) {
+            OClass docClass = schema.getClass(docType);
+            if (docClass == null) {
+                createDocType(schema, docType);
+            } else {
+                // database created by a version without some of the indexes
+                createIndexes(docClass);
+            }
+        }
+        OClass signatures = schema.getClass("Signatures");
+        if (signatures == null) {
+            // create the sha1 signatures class
+            signatures = schema.createClass("Signatures");
+            signatures.createProperty("key", OType.STRING).setNotNull(true);
+            signatures.createProperty("sha1", OType.STRING).setNotNull(true);
+        }
+        createIndex(signatures, "key", OType.STRING, OClass.INDEX_TYPE.UNIQUE);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!db.isClosed()) {
+            enter();
+            db.close();
+        }
+        DBUtil.closeDataStore();
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (Orient.instance().getEngines().size() > 0) {
+            Orient.instance().shutdown();
+        }
+    }
+
+    private void startupIfEnginesAreMissing() {
+        // If an instance of Orient was previously shutdown all engines are removed.
+        // We need to startup Orient again.
+        if ( Orient.instance().getEngines().size() == 0 ) {
+            Orient.instance().startup();
+        }
+    }
+
+    @Override
+    public synchronized void drop() {
+        generation++;
+        enter();
+        db.drop();
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public synchronized long getDocumentCount(String docType) {
+        enter();
+        return db.countClass(docType);
+    }
+
+    @Override
+    public DocumentList getDocumentStatus(String docType, String uri) {
+        return query("select sha1,rendered,cached,filesize,filemodified,parsersignature from " + docType + " where sourceuri=?", uri);
+
+    }
+
+    @Override
+    public DocumentList getDocumentStatuses(String docType) {
+        return query("select sourceuri,sha1,rendered,cached,filesize,filemodified,parsersignature from " + docType);
+    }
+
+    @Override
+    public DocumentList getPublishedPosts() {
+        return getPublishedContent("post");
+    }
+
+    @Override
+    public DocumentList getPublishedPostsByTag(String tag) {
+        return getTagIndex().getPosts(tag);
+    }
+
+    @Override
+    public DocumentList getPublishedPages() {
+        return getPublishedContent("page");
+    }
+
+    @Override
+    public DocumentList getPublishedContent(String docType) {
+        return queryDocuments("select * from " + docType + " where status='published' order by date desc");
+    }
+
+    @Override
+    public DocumentList getAllContent(String docType) {
+        return queryDocuments("select * from " + docType + " order by date desc");
+    }
+
+    @Override
+    public DocumentList getAllContent(String docType, int start, int limit) {
+        return queryDocuments("select * from " + docType + " order by date desc SKIP " + start + " LIMIT " + limit);
+    }
+
+    @Override
+    public DocumentList getAllTagsFromPublishedPosts() {
+        return query("select tags from post where status='published'");
+    }
+
+    @Override
+    public String getSignature(String key) {
+        DocumentList signatures = query("select sha1 from Signatures where key=?", key);
+        if (signatures.isEmpty()) {
+            return null;
+        }
+        return (String) signatures.get(0).get(String.valueOf(DocumentAttributes.SHA1));
+    }
+
+    @Override
+    public DocumentList getUnrenderedContent(String docType) {
+        return queryDocuments("select * from " + docType + " where rendered=false");
+    }
+
+    @Override
+    public boolean hasUnrenderedContent() {
+        for (String docType : DocumentTypes.getDocumentTypes()) {
+            if (!query("select sourceuri from " + docType + " where rendered=false limit 1").isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void deleteContent(String uri) {
+        for (String docType : DocumentTypes.getDocumentTypes()) {
+        	deleteContent(docType, uri);
+        }
+    }
+    
+    @Override
+    public void deleteContent(String docType, String uri) {
+        modifyDocuments("delete from " + docType + " where sourceuri=?", uri);
+    }
+
+    @Override
+    public void updateFileStat(String docType, String uri, long size, long modified) {
+        modifyDocuments("update " + docType + " set filesize=?, filemodified=? where sourceuri=?", size, modified, uri);
+    }
+
+    @Override
+    public void markConentAsRendered(String docType) {
+        modifyDocuments("update " + docType + " set rendered=true where rendered=false and cached=true");
+    }
+
+    @Override
+    public void markContentAsUnrendered(String docType) {
+        modifyDocuments("update " + docType + " set rendered=false where rendered=true");
+    }
+
+    @Override
+    public synchronized void updateSignature(String key, String sha1) {
+        executeCommand("delete from Signatures where key=?", key);
+        executeCommand("insert into Signatures(key,sha1) values(?,?)", key, sha1);
+    }
+
+    @Override
+    public synchronized void addDocument(String docType, Map<String, Object> document) {
+        enter();
+        generation++;
+        ODocument doc = new ODocument(docType);
+        doc.fields(document);
+        doc.save();
+    }
+
+    @Override
+    public void deleteAllByDocType(String docType) {
+        modifyDocuments("delete from " + docType);
+    }
+
+    private synchronized DocumentList query(String sql, Object... args) {
+        enter();
+        List<ODocument> results = db.command(new OSQLSynchQuery<ODocument>(sql)).execute(args);
+        return DocumentList.wrap(results.iterator());
+    }
+
+    /**
+     * Executes a query for complete documents, streaming the result and leaving out their bodies, which are only
+     * loaded when accessed.
+     */
+    private synchronized DocumentList queryDocuments(String sql, Object... args) {
+        enter();
+        final DocumentList result = new DocumentList();
+        db.command(new OSQLAsynchQuery<ODocument>(sql, new OCommandResultListener() {
+            @Override
+            public boolean result(Object record) {
+                result.add(toLazyDocument((ODocument) record));
+                return true;
+            }
+
+            @Override
+            public void end() {
+                // all documents have been added
+            }
+        })).execute(args);
+        return result;
+    }
+
+    private Map<String, Object> toLazyDocument(ODocument doc) {
+        Map<String, Object> fields = DBUtil.documentToModel(doc);
+        if (!fields.containsKey(Crawler.Attributes.BODY) || !doc.getIdentity().isPersistent()) {
+            return fields;
+        }
+        fields.remove(Crawler.Attributes.BODY);
+        final ORID id = doc.getIdentity().copy();
+        return new LazyDocument(fields, Crawler.Attributes.BODY, new LazyDocument.Loader() {
+            @Override
+            public Object load() {
+                return loadField(id, Crawler.Attributes.BODY);
+            }
+        });
+    }
+
+    private synchronized Object loadField(ORID id, String field) {
+        enter();
+        ODocument doc = db.load(id);
+        return doc == null ? null : doc.field(field);
+    }
+
+    /**
+     * Executes a command modifying documents, which starts a new {@link #getGeneration() generation}.
+     */
+    private synchronized void modifyDocuments(String query, Object... args) {
+        generation++;
+        executeCommand(query, args);
+    }
+
+    private synchronized void executeCommand(String query, Object... args) {
+        enter();
+        db.command(new OCommandSQL(query)).execute(args);
+    }
+
+    @Override
+    public Set<String> getTags() {
+        return getTagIndex().getTags();
+    }
+
+    @Override
+    public synchronized TagIndex getTagIndex() {
+        if (tagIndex == null || tagIndexGeneration != generation) {
+            tagIndexGeneration = generation;
+            tagIndex = TagIndex.create(queryDocuments("select * from post where status='published' order by date desc"));
+        }
+        return tagIndex;
+    }
+
+    @Override
+    public Set<String> getAllTags() {
+        Set<String> result = new HashSet<String>();
+        for (String docType : DocumentTypes.getDocumentTypes()) {
+            DocumentList docs = query("select tags from " + docType + " where status='published'");
+            for (Map<String, Object> document : docs) {
+                String[] tags = DBUtil.toStringArray(document.get(Crawler.Attributes.TAGS));
+                Collections.addAll(result, tags);
+            }
+        }
+        return result;
+    }
+
+    private static void createDocType(final OSchema schema, final String doctype) {
+        OClass page = schema.createClass(doctype);
+        page.createProperty(String.valueOf(DocumentAttributes.SHA1), OType.STRING).setNotNull(true);
+        page.createProperty(String.valueOf(DocumentAttributes.SOURCE_URI), OType.STRING).setNotNull(true);
+        page.createProperty(String.valueOf(DocumentAttributes.CACHED), OType.BOOLEAN).setNotNull(true);
+        page.createProperty(String.valueOf(DocumentAttributes.RENDERED), OType.BOOLEAN).setNotNull(true);
+
+        createIndexes(page);
+    }
+
+    /**
+     * Indexes for the attributes the queries of this class filter on: the source file used when checking and replacing
+     * a single document, the render flag, the status and the tags.
+     *
+     * <p>
+     * There is no index on the date: sorting on an indexed property of an empty class fails in memory databases.
+     * </p>
+     */
+    private static void createIndexes(final OClass docClass) {
+        createIndex(docClass, String.valueOf(DocumentAttributes.SOURCE_URI), OType.STRING, OClass.INDEX_TYPE.NOTUNIQUE);
+        createIndex(docClass, String.valueOf(DocumentAttributes.RENDERED), OType.BOOLEAN, OClass.INDEX_TYPE.NOTUNIQUE);
+        createIndex(docClass, Crawler.Attributes.STATUS, OType.STRING, OClass.INDEX_TYPE.NOTUNIQUE);
+        createIndex(docClass, Crawler.Attributes.TAGS, OType.EMBEDDEDLIST, OClass.INDEX_TYPE.NOTUNIQUE);
+    }
+
+    /**
+     * Creates an index on the given property, unless it already exists.
+     *
+     * <p>
+     * Index names are global to the database, so each class gets its own name. If the class was implicitly created
+     * when saving a document of a type not registered at that time, the property is created as well. Lists are indexed
+     * by their elements, which are expected to be strings.
+     * </p>
+     */
+    private static void createIndex(final OClass docClass, final String property, final OType type, final OClass.INDEX_TYPE indexType) {
+        String indexName = indexName(docClass.getName(), property);
+        if (docClass.getClassIndex(indexName) != null) {
+            return;
+        }
+        if (docClass.getProperty(property) == null) {
+            if (type == OType.EMBEDDEDLIST) {
+                docClass.createProperty(property, type, OType.STRING);
+            } else {
+                docClass.createProperty(property, type);
+            }
+        }
+        docClass.createIndex(indexName, indexType, property);
+    }
+
+    private static String indexName(final String className, final String property) {
+        if (property.equals(String.valueOf(DocumentAttributes.SOURCE_URI))) {
+            // name used since the first version with indexes
+            return className + "SourceUriIdx";
+        }
+        return className + Character.toUpperCase(property.charAt(0)) + property.substring(1) + "Idx";
+    }
+
+	/**
+	 * Makes the database available to the current thread. All methods of the store call it before accessing the
+	 * database, so that the store can be used from any thread.
+	 */
+	public void enter() {
+        ODatabaseRecordThreadLocal.INSTANCE.set(db);
+	}
+
+	/**
+	 * Releases the database from the current thread.
+	 */
+	public void exit() {
+		ODatabaseRecordThreadLocal.INSTANCE.remove();
+	}
+	
+	
+}
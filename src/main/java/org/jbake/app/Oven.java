@@ -2,21 +2,29 @@ package org.jbake.app;
 
 import org.apache.commons.configuration.CompositeConfiguration;
 import org.jbake.app.ConfigUtil.Keys;
-import org.jbake.model.DocumentAttributes;
 import org.jbake.model.DocumentTypes;
+import org.jbake.render.DigestRenderingTool;
 import org.jbake.render.RenderingTool;
+import org.jbake.render.TemplateRenderingTool;
 import org.jbake.template.ModelExtractorsDocumentTypeListener;
 import org.jbake.template.RenderingException;
+import org.jbake.util.OutputManifest;
+import org.jbake.util.OutputTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -29,6 +37,11 @@ public class Oven {
 
     private final static Logger LOGGER = LoggerFactory.getLogger(Oven.class);
 
+    /**
+     * Prefix of the keys under which the digests of {@link DigestRenderingTool}s are stored in the {@link ContentStore}.
+     */
+    private final static String TOOL_SIGNATURE_PREFIX = "tool.";
+
     private final static Pattern TEMPLATE_DOC_PATTERN = Pattern.compile("(?:template\\.)([a-zA-Z0-9]+)(?:\\.file)");
 
     private CompositeConfiguration config;
@@ -168,27 +181,118 @@ public class Oven {
 				}
 		    }
 
-		    if (processed > 0) {
+		    // documents left unrendered by an earlier bake are rendered as well
+		    boolean contentChanged = processed > 0 || db.hasUnrenderedContent();
+
+		    File manifestFile = null;
+		    OutputManifest manifest = null;
+		    String manifestName = config.getString(Keys.OUTPUT_MANIFEST, "");
+		    if (!manifestName.isEmpty()) {
+		    	manifestFile = setupPathFromConfig(Keys.OUTPUT_MANIFEST);
+		    	try {
+		    		manifest = OutputManifest.load(manifestFile, destination, source);
+		    	} catch (IOException e) {
+		    		LOGGER.warn("Ignoring unreadable manifest of the previous bake: " + e.getMessage());
+		    		manifest = OutputManifest.create(destination, source);
+		    	}
+		    }
+
+		    // copy assets first, templates may refer to their fingerprinted names
+		    Asset asset = new Asset(source, destination, config, db);
+		    asset.getOutputTracker().setManifest(manifest);
+		    asset.copy(assetsPath);
+		    errors.addAll(asset.getErrors());
+		    OutputTracker assetOutput = asset.getOutputTracker();
+		    if (assetOutput.getWritten() + assetOutput.getUnchanged() > 0) {
+		    	LOGGER.info("Copied {} assets, {} left unchanged", assetOutput.getWritten(), assetOutput.getUnchanged());
+		    }
+
+		    // re-render documents whose templates have changed, without parsing them again
+		    TemplateDependencies templates = new TemplateDependencies(templatesPath, config);
+		    if (!asset.getFingerprintSignature().isEmpty()) {
+		    	templates.addInput("assets", asset.getFingerprintSignature());
+		    }
+		    if (!asset.getVariantSignature().isEmpty()) {
+		    	templates.addInput("images", asset.getVariantSignature());
+		    }
+		    Set<String> changedTemplates = templates.getChangedTypes(db);
+		    for (String docType : DocumentTypes.getDocumentTypes()) {
+		    	if (changedTemplates.contains(docType)) {
+		    		LOGGER.info("Templates of type {} have changed.", docType);
+		    		db.markContentAsUnrendered(docType);
+		    	}
+		    }
+
+		    if (contentChanged || !changedTemplates.isEmpty()) {
 		    	Renderer renderer = getRenderer();
+		    	renderer.getOutputTracker().setManifest(manifest);
+		    	// the signatures in the store are the ones of the last bake that rendered the template type
+		    	renderer.setTemplateSignatures(templates.getSignatures());
+		    	// the renderer is kept across bakes, its counts include earlier bakes
+		    	OutputTracker output = renderer.getOutputTracker();
+		    	int writtenBefore = output.getWritten();
+		    	int unchangedBefore = output.getUnchanged();
+		    	// template types whose outputs failed to render keep their old signature and are rendered again next time
+		    	Set<String> failedTypes = new HashSet<String>();
+		    	// tools are skipped if the document attributes covered by their digest have not changed
+		    	boolean digests = config.getBoolean(Keys.RENDER_DIGEST, true);
 		    	
 		    	for(RenderingTool tool : ServiceLoader.load(RenderingTool.class)) {
+		    		boolean templatesChanged = tool instanceof TemplateRenderingTool
+		    				&& changedTemplates.contains(((TemplateRenderingTool) tool).getTemplateType());
+		    		if (!contentChanged && tool instanceof TemplateRenderingTool && !templatesChanged) {
+		    			// neither content nor templates of this tool have changed
+		    			continue;
+		    		}
+		    		String digestKey = null;
+		    		String digest = null;
+		    		if (digests && tool instanceof DigestRenderingTool) {
+		    			DigestRenderingTool digestTool = (DigestRenderingTool) tool;
+		    			digestKey = TOOL_SIGNATURE_PREFIX + digestTool.getTemplateType();
+		    			digest = digestTool.getContentDigest(db, config);
+		    			if (!templatesChanged && digest.equals(db.getSignature(digestKey))
+		    					&& outputsExist(digestTool.getOutputFiles(db, config))) {
+		    				// the content this tool depends on has not changed
+		    				continue;
+		    			}
+		    		}
 		    		try {
-		    			renderedCount += tool.render(renderer, db, destination, templatesPath, config);
+		    			int count = tool.render(renderer, db, destination, templatesPath, config);
+		    			renderedCount += count;
+		    			if (digestKey != null) {
+		    				// also stored if nothing is rendered, the outputs are checked before skipping the tool
+		    				db.updateSignature(digestKey, digest);
+		    			}
 		    		} catch(RenderingException e) {
 		    			errors.add(e);
+		    			if (tool instanceof TemplateRenderingTool) {
+		    				failedTypes.add(((TemplateRenderingTool) tool).getTemplateType());
+		    			} else {
+		    				failedTypes.addAll(Arrays.asList(DocumentTypes.getDocumentTypes()));
+		    			}
 		    		}
 		    	}
+		    	Set<String> renderedTypes = new HashSet<String>(changedTemplates);
+		    	renderedTypes.removeAll(failedTypes);
+		    	templates.storeSignatures(db, renderedTypes);
 		    	
 		    	// mark docs as rendered
 		    	for (String docType : DocumentTypes.getDocumentTypes()) {
 		    		db.markConentAsRendered(docType);
 		    	}
+		    	LOGGER.info("Wrote {} output files, {} left unchanged", output.getWritten() - writtenBefore,
+		    			output.getUnchanged() - unchangedBefore);
 		    }
 		    
-		    // copy assets
-		    Asset asset = new Asset(source, destination, config);
-		    asset.copy(assetsPath);
-		    errors.addAll(asset.getErrors());
+		    if (manifest != null) {
+		    	try {
+		    		Map<OutputManifest.Status, Integer> counts = manifest.write(manifestFile);
+		    		LOGGER.info("Wrote manifest {}: {}", manifestFile, counts);
+		    	} catch (IOException e) {
+		    		LOGGER.error("Failed to write manifest " + manifestFile, e);
+		    		errors.add(e);
+		    	}
+		    }
 
 		    LOGGER.info("Baking finished!");
 		    long end = new Date().getTime();
@@ -198,6 +302,15 @@ public class Oven {
 		    }
 	}
 
+	private boolean outputsExist(List<String> outputFiles) {
+		for (String outputFile : outputFiles) {
+			if (!new File(destination, outputFile).isFile()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	public Crawler getCrawler() {
 		if (crawler == null) {
 			crawler = new Crawler(db, source, config);
@@ -207,14 +320,31 @@ public class Oven {
 
 	/**
 	 * Prepares for baking.
+	 *
+	 * <p>
+	 * A persistent database is kept at {@link Keys#DB_PATH}, relative to the source folder, so that a later bake only
+	 * processes the files that have changed in between.
+	 * </p>
 	 */
 	public void setupDB() {
-		db = DBUtil.createDataStore(config.getString(Keys.DB_STORE), config.getString(Keys.DB_PATH));
+		db = DBUtil.createDataStore(config.getString(Keys.DB_STORE), getDBPath());
         updateDocTypesFromConfiguration();
         DBUtil.updateSchema(db);
         clearCacheIfNeeded(db);
 	}
 	
+	private String getDBPath() {
+		String path = config.getString(Keys.DB_PATH);
+		if ("memory".equals(config.getString(Keys.DB_STORE))) {
+			return path;
+		}
+		File dbPath = new File(path);
+		if (!dbPath.isAbsolute()) {
+			dbPath = new File(source, path);
+		}
+		return dbPath.getAbsolutePath();
+	}
+
 	/**
 	 * The source {@link ContentStore}.
 	 */
@@ -226,8 +356,10 @@ public class Oven {
 	 * Frees resources after baking.
 	 */
 	public void shutdownDB() {
-		db.close();
-		db.shutdown();
+		if (db != null) {
+			db.close();
+			db.shutdown();
+		}
 	}
 	
 	/**
@@ -263,28 +395,7 @@ public class Oven {
     }
 
     private void clearCacheIfNeeded(final ContentStore db) {
-        boolean needed = isClearCache;
-        if (!needed) {
-            DocumentList docs = db.getSignaturesForTemplates();
-            String currentTemplatesSignature;
-            try {
-                currentTemplatesSignature = FileUtil.sha1(templatesPath);
-            } catch (Exception e) {
-                currentTemplatesSignature = "";
-            }
-            if (!docs.isEmpty()) {
-                String sha1 = (String) docs.get(0).get(String.valueOf(DocumentAttributes.SHA1));
-                needed = !sha1.equals(currentTemplatesSignature);
-                if (needed) {
-                    db.updateSignatures(currentTemplatesSignature);
-                }
-            } else {
-                // first computation of templates signature
-                db.insertSignature(currentTemplatesSignature);
-                needed = true;
-            }
-        }
-        if (needed) {
+        if (isClearCache) {
             for (String docType : DocumentTypes.getDocumentTypes()) {
                 try {
                     db.deleteAllByDocType(docType);
@@ -2,9 +2,17 @@ package org.jbake.app;
 
 import org.jbake.parser.Engines;
 import java.io.File;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.configuration.Configuration;
+import org.jbake.parser.MarkupEngine;
 import org.jbake.parser.ParserEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,6 +28,11 @@ public class Parser {
     private Configuration config;
     private String contentPath;
 
+    /**
+     * Cache for {@link #configSignature(File)} by file extension.
+     */
+    private final Map<String, String> configSignatures = new HashMap<String, String>();
+
     /**
      * Creates a new instance of Parser.
      */
@@ -43,4 +56,47 @@ public class Parser {
     	
     	return engine.parse(config, file, contentPath);
     }
+
+    /**
+     * Computes a signature of all configuration options that influence the result of {@link #processFile(File)} for
+     * the given file. A document must be parsed again, if this signature changes even if its source did not.
+     *
+     * @param file The source file.
+     * @return A hex string representing the SHA-1 hash of the relevant options.
+     */
+    public synchronized String configSignature(File file) {
+        String extension = FileUtil.fileExt(file);
+        String result = configSignatures.get(extension);
+        if (result == null) {
+            result = computeConfigSignature(Engines.get(extension));
+            configSignatures.put(extension, result);
+        }
+        return result;
+    }
+
+    private String computeConfigSignature(ParserEngine engine) {
+        Set<String> keys = new TreeSet<String>();
+        for (Iterator<String> it = config.getKeys(); it.hasNext();) {
+            String key = it.next();
+            // options of engines not derived from MarkupEngine are unknown, all of them are considered relevant
+            if (!(engine instanceof MarkupEngine) || ((MarkupEngine) engine).isParserOption(config, key)) {
+                keys.add(key);
+            }
+        }
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        Charset utf8 = Charset.forName("UTF-8");
+        for (String key : keys) {
+            digest.update(key.getBytes(utf8));
+            digest.update((byte) '=');
+            digest.update(String.valueOf(config.getProperty(key)).getBytes(utf8));
+            digest.update((byte) '\n');
+        }
+        return HashUtil.toHex(digest.digest());
+    }
 }
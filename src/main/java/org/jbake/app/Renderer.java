@@ -3,10 +3,15 @@ package org.jbake.app;
 import org.apache.commons.configuration.CompositeConfiguration;
 import org.jbake.app.ConfigUtil.Keys;
 import org.jbake.app.Crawler.Attributes;
+import org.jbake.model.DocumentAttributes;
 import org.jbake.processors.PostProcessor;
+import org.jbake.render.ContentDigest;
 import org.jbake.template.DelegatingTemplateEngine;
 import org.jbake.template.RenderingException;
 import org.jbake.util.FileOut;
+import org.jbake.util.GzipCompression;
+import org.jbake.util.OutputManifest;
+import org.jbake.util.OutputTracker;
 import org.jbake.util.Out;
 import org.jbake.util.WriterOut;
 import org.slf4j.Logger;
@@ -20,9 +25,13 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Render output to a file.
@@ -90,11 +99,11 @@ public class Renderer {
 		private final Object content;
 		
 		private DefaultRenderingConfig(File path, Charset encoding, String allInOneName) {
-			this(new FileOut(path, encoding), allInOneName);
+			this(new FileOut(path, encoding, output, OutputManifest.toolSource(allInOneName)), allInOneName);
 		}
 		
 		public DefaultRenderingConfig(String filename, Charset encoding, String allInOneName) {
-			this(fileOut(filename, encoding), allInOneName);
+			this(fileOut(filename, encoding, allInOneName), allInOneName);
 		}
 		
 		public DefaultRenderingConfig(Out out, String allInOneName) {
@@ -123,12 +132,26 @@ public class Renderer {
 
     private final static Logger LOGGER = LoggerFactory.getLogger(Renderer.class);
 
+    /**
+     * Prefix of the keys under which the signatures of rendered tag files are stored in the {@link ContentStore}.
+     */
+    private static final String TAG_SIGNATURE_PREFIX = "tag.";
+
+    /**
+     * Prefix of the keys under which the signatures of rendered index pages are stored in the {@link ContentStore}.
+     */
+    private static final String INDEX_SIGNATURE_PREFIX = "index.";
+
     // TODO: should all content be made available to all templates via this class??
 
     private final File destination;
     private final CompositeConfiguration config;
     private final DelegatingTemplateEngine renderingEngine;
     private final ContentStore db;
+    private final File templatesPath;
+    private volatile Map<String, String> templateSignatures;
+    private final ConcurrentMap<String, PostProcessor> postProcessors = new ConcurrentHashMap<String, PostProcessor>();
+    private final OutputTracker output;
     /**
      * Creates a new instance of Renderer with supplied references to folders.
      *
@@ -142,6 +165,41 @@ public class Renderer {
         this.config = config;
         this.renderingEngine = new DelegatingTemplateEngine(config, db, destination, templatesPath);
         this.db = db;
+        this.templatesPath = templatesPath;
+        this.output = new OutputTracker(config.getBoolean(Keys.OUTPUT_WRITE_IF_CHANGED, true));
+        this.output.setCompression(GzipCompression.fromConfig(config));
+    }
+
+    /**
+     * Sets the current signatures of the templates, as computed by {@link TemplateDependencies#getSignatures()}.
+     *
+     * <p>
+     * Incremental rendering of tag files and index pages compares them with the signatures recorded for the rendered
+     * files. If not set, they are computed for each call of {@link #renderTags(String)} and
+     * {@link #renderIndex(String)}.
+     * </p>
+     *
+     * @param signatures Signatures by template type.
+     */
+    public void setTemplateSignatures(Map<String, String> signatures) {
+        this.templateSignatures = signatures;
+    }
+
+    private String templateSignature(String type) {
+        Map<String, String> signatures = templateSignatures;
+        if (signatures == null) {
+            signatures = new TemplateDependencies(templatesPath, config).computeSignatures();
+        }
+        return signatures.get(type);
+    }
+
+    private PostProcessor getPostProcessor(String docType) {
+        PostProcessor result = postProcessors.get(docType);
+        if (result == null) {
+            result = PostProcessor.forType(config, docType);
+            postProcessors.put(docType, result);
+        }
+        return result;
     }
 
     private String findTemplateName(String docType) {
@@ -163,27 +221,29 @@ public class Renderer {
         	outputFilename = outputFilename.substring(0, outputFilename.lastIndexOf("."));
         }
 
-        // delete existing versions if they exist in case status has changed either way
         File draftFile = new File(outputFilename + config.getString(Keys.DRAFT_SUFFIX) + FileUtil.findExtension(config, docType));
-        if (draftFile.exists()) {
-            draftFile.delete();
-        }
-
         File publishedFile = new File(outputFilename + FileUtil.findExtension(config, docType));
-        if (publishedFile.exists()) {
-            publishedFile.delete();
-        }
 
+        // delete the other version if it exists in case status has changed either way, the output file itself is
+        // only replaced if its content changes
+        File outputFile;
+        File otherFile;
         if (content.get(Crawler.Attributes.STATUS).equals(Crawler.Attributes.Status.DRAFT)) {
-            outputFilename = outputFilename + config.getString(Keys.DRAFT_SUFFIX);
+            outputFile = draftFile;
+            otherFile = publishedFile;
+        } else {
+            outputFile = publishedFile;
+            otherFile = draftFile;
+        }
+        if (otherFile.exists()) {
+            output.delete(otherFile);
         }
 
-        File outputFile = new File(outputFilename + FileUtil.findExtension(config,docType));
         StringBuilder sb = new StringBuilder();
         sb.append("Rendering [").append(outputFile).append("]... ");
 
         try {
-            Writer out = createWriter(outputFile);
+            Writer out = createWriter(outputFile, (String) content.get(Attributes.FILE));
             
             renderPage(out, content, docType);
             out.close();
@@ -208,12 +268,19 @@ public class Renderer {
 		
 		StringWriter buffer = new StringWriter();
 		renderingEngine.renderDocument(model, findTemplateName(docType(content)), buffer);
-		PostProcessor.postProcess(buffer, out);
+		getPostProcessor(docType(content)).postProcess(buffer, out);
 		
 	}
 
-    private Writer createWriter(File file) throws IOException {
-    	return FileOut.createWriter(file, getEncoding());
+    private Writer createWriter(File file, String source) throws IOException {
+    	return output.createWriter(file, getEncoding(), source);
+    }
+
+    /**
+     * The {@link OutputTracker} all files are written through.
+     */
+    public OutputTracker getOutputTracker() {
+        return output;
     }
 
 	private Charset getEncoding() {
@@ -244,74 +311,118 @@ public class Renderer {
      * @throws Exception
      */
     public void renderIndex(String indexFile) throws Exception {
-      long totalPosts = db.getDocumentCount("post");
-      boolean paginate = config.getBoolean(Keys.PAGINATE_INDEX, false);
-      int postsPerPage = config.getInt(Keys.POSTS_PER_PAGE, -1);
-      int start = 0;
-
-      if (paginate) {
-          db.setLimit(postsPerPage);
-      }
-
       try {
-          int page = 1;
-          while (start < totalPosts) {
-              renderIndexPage(totalPosts, paginate, postsPerPage, start, page, indexFile, null);
-              
-              if (paginate) {
-                  start += postsPerPage;
-                  page++;
-              } else {
-                  break; // TODO: eww
+          if (!config.getBoolean(Keys.PAGINATE_INDEX, false)) {
+              if (db.getDocumentCount("post") > 0) {
+                  render(new DefaultRenderingConfig(fileOut(indexFile, getEncoding(), "masterindex"), "masterindex"));
+              }
+              return;
+          }
+
+          IndexPagination pagination = new IndexPagination(indexFile);
+          boolean incremental = config.getBoolean(Keys.RENDER_INDEX_INCREMENTAL, true);
+          String templateSignature = incremental ? templateSignature("masterindex") : null;
+          for (int page = 1; page <= pagination.getPageCount(); page++) {
+              String pageName = pagination.getPageName(page);
+              Map<String, Object> model = pagination.createModel(page);
+              String signature = null;
+              if (incremental) {
+                  signature = pagination.getSignature(templateSignature, model);
+                  if (new File(destination, pageName).isFile() && signature.equals(db.getSignature(INDEX_SIGNATURE_PREFIX + pageName))) {
+                      continue;
+                  }
+              }
+              render(new ModelRenderingConfig(fileOut(pageName, getEncoding(), "masterindex"), "masterindex", model, findTemplateName("masterindex")));
+              if (incremental) {
+                  db.updateSignature(INDEX_SIGNATURE_PREFIX + pageName, signature);
               }
           }
-          db.resetPagination();
       } catch (Exception e) {
           throw new Exception("Failed to render index. Cause: " + e.getMessage(), e);
       }
     }
 
     public void renderIndexPage(int page, String indexName, Out out) throws Exception {
-        long totalPosts = db.getDocumentCount("post");
-        boolean paginate = config.getBoolean(Keys.PAGINATE_INDEX, false);
-        int postsPerPage = config.getInt(Keys.POSTS_PER_PAGE, -1);
-        int start = (page - 1) * postsPerPage;
-		renderIndexPage(totalPosts, paginate, postsPerPage, start, postsPerPage, indexName, out);
+        if (config.getBoolean(Keys.PAGINATE_INDEX, false)) {
+            Map<String, Object> model = new IndexPagination(indexName).createModel(page);
+            render(new ModelRenderingConfig(out, "masterindex", model, findTemplateName("masterindex")));
+        } else {
+            render(new DefaultRenderingConfig(out, "masterindex"));
+        }
+    }
+
+    /**
+     * Splits the posts into the pages of a paginated index.
+     *
+     * <p>
+     * The sorted posts are fetched once, each page gets its slice of them in the <code>published_posts</code> and
+     * <code>posts</code> model entries, instead of querying the {@link ContentStore} for each page.
+     * </p>
+     */
+    private class IndexPagination {
+
+        private final String baseName;
+        private final String suffix;
+        private final int postsPerPage;
+        private final DocumentList publishedPosts;
+        private final DocumentList allPosts;
+
+        IndexPagination(String indexName) {
+            int index = indexName.lastIndexOf(".");
+            this.baseName = indexName.substring(0, index);
+            this.suffix = indexName.substring(index);
+            this.postsPerPage = config.getInt(Keys.POSTS_PER_PAGE, -1);
+            this.publishedPosts = db.getPublishedPosts();
+            this.allPosts = db.getAllContent("post");
+        }
+
+        int getPageCount() {
+            if (postsPerPage <= 0) {
+                return allPosts.isEmpty() ? 0 : 1;
+            }
+            return (allPosts.size() + postsPerPage - 1) / postsPerPage;
+        }
+
+        String getPageName(int page) {
+            return indexPageName(baseName, suffix, page);
+        }
+
+        Map<String, Object> createModel(int page) {
+            Map<String, Object> model = new HashMap<String, Object>();
+            model.put("renderer", renderingEngine);
+            model.put("content", buildSimpleModel("masterindex"));
+            if (page > 1) {
+                model.put("previousFileName", getPageName(page - 1));
+            }
+            if (page < getPageCount()) {
+                model.put("nextFileName", getPageName(page + 1));
+            }
+            model.put("published_posts", slice(publishedPosts, page));
+            model.put("posts", slice(allPosts, page));
+            return model;
+        }
+
+        /**
+         * The signature of an index page, covering the index template, the configuration and the posts listed.
+         */
+        String getSignature(String templateSignature, Map<String, Object> model) {
+            return new ContentDigest(config)
+                    .add(String.valueOf(templateSignature))
+                    .add(String.valueOf(model.get("previousFileName")), String.valueOf(model.get("nextFileName")))
+                    .add((DocumentList) model.get("published_posts"), Attributes.URI, String.valueOf(DocumentAttributes.SHA1))
+                    .add((DocumentList) model.get("posts"), Attributes.URI, String.valueOf(DocumentAttributes.SHA1))
+                    .digest();
+        }
+
+        private DocumentList slice(DocumentList posts, int page) {
+            if (postsPerPage <= 0) {
+                return new DocumentList(posts);
+            }
+            int from = Math.min((page - 1) * postsPerPage, posts.size());
+            int to = Math.min(from + postsPerPage, posts.size());
+            return new DocumentList(posts.subList(from, to));
+        }
     }
-    
-	private void renderIndexPage(long totalPosts, boolean paginate,
-			int postsPerPage, int start, int page, String indexName, Out out)
-			throws Exception {
-		Map<String, Object> model = new HashMap<String, Object>();
-		model.put("renderer", renderingEngine);
-		model.put("content", buildSimpleModel("masterindex"));
-		
-		String pageName;
-		if (paginate) {
-			db.setStart(start);
-			int index = indexName.lastIndexOf(".");
-			String baseName = indexName.substring(0, index);
-			String suffix = indexName.substring(index);
-			if (page != 1) {
-				model.put("previousFileName", indexPageName(baseName, suffix, page - 1));
-			}
-
-			// If this iteration won't consume the remaining posts, calculate
-			// the next file name
-			if ((start + postsPerPage) < totalPosts) {
-				model.put("nextFileName", indexPageName(baseName, suffix, page + 1));
-			}
-			// Add page number to file name
-			pageName = indexPageName(baseName, suffix, page);
-		} else {
-			pageName = indexName;
-		}
-		
-		if (out == null) {
-			out = fileOut(pageName, getEncoding());
-		}
-		render(new DefaultRenderingConfig(out, "masterindex"));
-	}
 
 	private String indexPageName(String baseName, String suffix, int page) {
 		return baseName + indexPageId(page) + suffix;
@@ -365,24 +476,45 @@ public class Renderer {
     }
     
     /**
-     * Render tag files using the supplied content.
+     * Renders the tag files.
      *
-     * @param tagPath The output path
-     * @throws Exception 
+     * <p>
+     * With {@link Keys#RENDER_TAGS_INCREMENTAL}, a tag file is only rendered if its posts, the tag template or the
+     * configuration have changed since it has been rendered last, and tag files of tags no longer used are deleted.
+     * </p>
+     *
+     * @param tagPath The folder of the tag files, relative to the destination.
+     * @return The number of rendered tag files.
      */
     public int renderTags(String tagPath) throws Exception {
     	int renderedCount = 0;
     	final List<Throwable> errors = new LinkedList<Throwable>();
+    	boolean incremental = config.getBoolean(Keys.RENDER_TAGS_INCREMENTAL, false);
+    	String templateSignature = incremental ? templateSignature(Attributes.TAG) : null;
+    	File tagFolder = new File(destination.getPath() + File.separator + tagPath);
+    	TagIndex index = db.getTagIndex();
+    	Set<String> tagNames = new HashSet<String>();
         for (String tag : db.getTags()) {
             try {
-            	tag = tag.trim().replace(" ", "-");
-            	File path = new File(destination.getPath() + File.separator + tagPath + File.separator + tag + config.getString(Keys.OUTPUT_EXTENSION));
-            	renderTag(path, tag);
+            	String tagName = tag.trim().replace(" ", "-");
+            	tagNames.add(tagName);
+            	File path = new File(tagFolder, tagName + config.getString(Keys.OUTPUT_EXTENSION));
+            	String signature = incremental ? tagSignature(templateSignature, index.getPosts(tag)) : null;
+            	if (incremental && path.isFile() && signature.equals(db.getSignature(TAG_SIGNATURE_PREFIX + tagName))) {
+            		continue;
+            	}
+            	renderTag(path, tagName);
+            	if (incremental) {
+            		db.updateSignature(TAG_SIGNATURE_PREFIX + tagName, signature);
+            	}
                 renderedCount++;
             } catch (Exception e) {
                 errors.add(e);
             }
         }
+        if (incremental) {
+        	deleteRemovedTags(tagFolder, tagNames);
+        }
         if (!errors.isEmpty()) {
         	StringBuilder sb = new StringBuilder();
         	sb.append("Failed to render tags. Cause(s):");
@@ -395,8 +527,46 @@ public class Renderer {
         }
     }
 
+    /**
+     * The signature of a tag file, covering the tag template, the configuration and the source of all posts listed.
+     */
+    private String tagSignature(String templateSignature, DocumentList posts) {
+    	return new ContentDigest(config)
+    			.add(String.valueOf(templateSignature))
+    			.add(posts, Attributes.URI, String.valueOf(DocumentAttributes.SHA1))
+    			.digest();
+    }
+
+    /**
+     * Deletes the tag files rendered by an earlier bake for tags no longer used by any published post.
+     */
+    private void deleteRemovedTags(File tagFolder, Set<String> tagNames) {
+    	String extension = config.getString(Keys.OUTPUT_EXTENSION);
+    	File[] files = tagFolder.listFiles();
+    	if (files == null) {
+    		return;
+    	}
+    	for (File file : files) {
+    		String name = file.getName();
+    		if (!file.isFile() || !name.endsWith(extension)) {
+    			continue;
+    		}
+    		String tagName = name.substring(0, name.length() - extension.length());
+    		String key = TAG_SIGNATURE_PREFIX + tagName;
+    		String signature = db.getSignature(key);
+    		if (!tagNames.contains(tagName) && signature != null && !signature.isEmpty()) {
+    			if (output.delete(file)) {
+    				LOGGER.info("Deleted tag file of removed tag: {}", file);
+    				db.updateSignature(key, "");
+    			} else {
+    				LOGGER.warn("Failed to delete tag file of removed tag: {}", file);
+    			}
+    		}
+    	}
+    }
+
 	private void renderTag(File path, String tag) throws Exception {
-		renderTag(new FileOut(path, getEncoding()), tag);
+		renderTag(new FileOut(path, getEncoding(), output, OutputManifest.toolSource(Attributes.TAG)), tag);
 	}
 
 	public void renderTag(Writer out, String tag) throws Exception {
@@ -431,8 +601,9 @@ public class Renderer {
     	return content;
     }
 
-    FileOut fileOut(String filename, Charset encoding) {
-		return new FileOut(new File(destination.getPath() + File.separator + filename), encoding);
+    FileOut fileOut(String filename, Charset encoding, String type) {
+		return new FileOut(new File(destination.getPath() + File.separator + filename), encoding, output,
+				OutputManifest.toolSource(type));
 	}
 
 }
@@ -0,0 +1,91 @@
+package org.jbake.app;
+
+import org.jbake.app.Crawler.Attributes;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The published posts of each tag, built in a single pass over all published posts.
+ *
+ * <p>
+ * The index is immutable. The documents are shared by all lists of the index and must not be modified.
+ * </p>
+ *
+ * @see ContentStore#getTagIndex()
+ */
+public class TagIndex {
+
+    private final Map<String, DocumentList> postsByTag;
+
+    private final Map<String, Integer> counts;
+
+    private TagIndex(Map<String, DocumentList> postsByTag, Map<String, Integer> counts) {
+        this.postsByTag = postsByTag;
+        this.counts = counts;
+    }
+
+    /**
+     * Creates a {@link TagIndex}.
+     *
+     * @param publishedPosts All published posts, newest first.
+     * @return The index of the tags of the given posts.
+     */
+    public static TagIndex create(DocumentList publishedPosts) {
+        Map<String, DocumentList> postsByTag = new TreeMap<String, DocumentList>();
+        for (Map<String, Object> post : publishedPosts) {
+            for (String tag : DBUtil.toStringArray(post.get(Attributes.TAGS))) {
+                DocumentList posts = postsByTag.get(tag);
+                if (posts == null) {
+                    posts = new DocumentList();
+                    postsByTag.put(tag, posts);
+                } else if (posts.get(posts.size() - 1) == post) {
+                    // tag given twice
+                    continue;
+                }
+                posts.add(post);
+            }
+        }
+        Map<String, Integer> counts = new TreeMap<String, Integer>();
+        for (Map.Entry<String, DocumentList> entry : postsByTag.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().size());
+        }
+        return new TagIndex(postsByTag, Collections.unmodifiableMap(counts));
+    }
+
+    /**
+     * All tags of published posts in alphabetical order.
+     */
+    public Set<String> getTags() {
+        return counts.keySet();
+    }
+
+    /**
+     * The published posts with the given tag, newest first.
+     *
+     * @param tag The tag.
+     * @return A new list, empty if no post has the given tag.
+     */
+    public DocumentList getPosts(String tag) {
+        DocumentList posts = postsByTag.get(tag);
+        return posts == null ? new DocumentList() : new DocumentList(posts);
+    }
+
+    /**
+     * The number of published posts with the given tag.
+     */
+    public int getCount(String tag) {
+        Integer count = counts.get(tag);
+        return count == null ? 0 : count.intValue();
+    }
+
+    /**
+     * The number of published posts of each tag, by tag in alphabetical order.
+     */
+    public Map<String, Integer> getCounts() {
+        return counts;
+    }
+
+}
@@ -0,0 +1,326 @@
+package org.jbake.app;
+
+import org.apache.commons.configuration.CompositeConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.jbake.app.ConfigUtil.Keys;
+import org.jbake.template.ThymeleafTemplateEngine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tracks which template files each template type (the <code>&lt;type&gt;</code> in a
+ * <code>template.&lt;type&gt;.file</code> configuration key) depends on.
+ *
+ * <p>
+ * Dependencies are found by a conservative textual scan: a template depends on every other file in the templates
+ * folder whose name occurs in its text. This covers includes, imports, layouts and fragment references of all
+ * supported template engines, at the price of an occasional unnecessary re-render. References without extension, as
+ * in Jade's <code>include header</code> or Thymeleaf's <code>th:replace="header :: head"</code>, are resolved like
+ * the engines do.
+ * </p>
+ *
+ * <p>
+ * The signature of a template type covers the configured template name and all files in its dependency closure. The
+ * signatures are stored in the {@link ContentStore}, so that a bake only re-renders the outputs whose templates have
+ * actually changed. A new signature is only stored once the outputs of its template type have been rendered, so that
+ * a failed bake is retried.
+ * </p>
+ */
+public class TemplateDependencies {
+
+    private static final Pattern TEMPLATE_FILE_KEY = Pattern.compile("template\\.([a-zA-Z0-9]+)\\.file");
+
+    /**
+     * A reference to a template without file extension.
+     */
+    private static final Pattern BARE_REFERENCE = Pattern.compile("\\b(?:include|extends)\\s+([\\w./-]+)");
+
+    /**
+     * A Thymeleaf fragment reference, e.g. <code>th:replace="header :: head"</code> or <code>th:insert="~{header}"</code>.
+     */
+    private static final Pattern FRAGMENT_REFERENCE = Pattern.compile(
+            "(?:~\\{|\\b(?:th:|data-th-)(?:replace|insert|include|substituteby)\\s*=\\s*[\"'])\\s*([\\w./-]+)");
+
+    /**
+     * Prefix of the keys under which template signatures are stored in the {@link ContentStore}.
+     */
+    static final String SIGNATURE_PREFIX = "template.";
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final File templatesPath;
+    private final CompositeConfiguration config;
+
+    /**
+     * Relative paths of all files in the templates folder (using <code>/</code> as separator) mapped to the file.
+     */
+    private final Map<String, File> templateFiles = new TreeMap<String, File>();
+
+    private final Map<String, String> fileHashes = new HashMap<String, String>();
+
+    private final Map<String, Set<String>> references = new HashMap<String, Set<String>>();
+
+    private final Map<String, String> inputs = new TreeMap<String, String>();
+
+    private Map<String, String> signatures;
+
+    public TemplateDependencies(File templatesPath, CompositeConfiguration config) {
+        this.templatesPath = templatesPath;
+        this.config = config;
+    }
+
+    /**
+     * Adds an input all templates may use, the signatures of all template types change if its signature changes.
+     *
+     * @param name The name of the input.
+     * @param signature The signature of the input.
+     */
+    public void addInput(String name, String signature) {
+        inputs.put(name, signature);
+    }
+
+    /**
+     * Compares the current signature of all template types with the ones recorded in the given store.
+     *
+     * @param db The store keeping the signatures of the last bake.
+     * @return The template types whose templates have changed since the last bake.
+     * @see #storeSignatures(ContentStore, Collection)
+     */
+    public Set<String> getChangedTypes(ContentStore db) {
+        Set<String> result = new TreeSet<String>();
+        for (Map.Entry<String, String> entry : getSignatures().entrySet()) {
+            if (!entry.getValue().equals(db.getSignature(SIGNATURE_PREFIX + entry.getKey()))) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Records the current signatures of the given template types, after their outputs have been rendered.
+     *
+     * @param db The store keeping the signatures.
+     * @param types The template types whose outputs are up to date.
+     */
+    public void storeSignatures(ContentStore db, Collection<String> types) {
+        Map<String, String> current = getSignatures();
+        for (String type : types) {
+            String signature = current.get(type);
+            if (signature != null) {
+                db.updateSignature(SIGNATURE_PREFIX + type, signature);
+            }
+        }
+    }
+
+    /**
+     * The current signatures of all configured template types, computed once.
+     *
+     * @return Signatures by template type.
+     * @see #computeSignatures()
+     */
+    public Map<String, String> getSignatures() {
+        if (signatures == null) {
+            signatures = computeSignatures();
+        }
+        return signatures;
+    }
+
+    /**
+     * Computes the signatures of all configured template types.
+     *
+     * @return Signatures by template type.
+     */
+    public Map<String, String> computeSignatures() {
+        scanTemplates();
+
+        Map<String, String> result = new TreeMap<String, String>();
+        Iterator<String> keys = config.getKeys();
+        while (keys.hasNext()) {
+            Matcher matcher = TEMPLATE_FILE_KEY.matcher(keys.next());
+            if (matcher.matches()) {
+                String type = matcher.group(1);
+                result.put(type, signature(config.getString(matcher.group())));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * All files the given template type depends on, as paths relative to the templates folder.
+     */
+    public Set<String> getDependencies(String type) {
+        scanTemplates();
+        return closure(config.getString("template." + type + ".file"));
+    }
+
+    private String signature(String templateName) {
+        MessageDigest digest = newDigest();
+        digest.update(String.valueOf(templateName).getBytes(UTF8));
+        digest.update((byte) '\n');
+        for (String path : closure(templateName)) {
+            digest.update(path.getBytes(UTF8));
+            digest.update((byte) 0);
+            digest.update(fileHashes.get(path).getBytes(UTF8));
+            digest.update((byte) '\n');
+        }
+        for (Map.Entry<String, String> input : inputs.entrySet()) {
+            digest.update(input.getKey().getBytes(UTF8));
+            digest.update((byte) 0);
+            digest.update(input.getValue().getBytes(UTF8));
+            digest.update((byte) '\n');
+        }
+        return HashUtil.toHex(digest.digest());
+    }
+
+    private Set<String> closure(String templateName) {
+        Set<String> result = new TreeSet<String>();
+        if (templateName == null) {
+            return result;
+        }
+        List<String> pending = new ArrayList<String>(roots(templateName));
+        while (!pending.isEmpty()) {
+            String path = pending.remove(pending.size() - 1);
+            if (result.add(path)) {
+                pending.addAll(references.get(path));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The files that may be used for the given template name, if the configured file does not exist, the
+     * {@link org.jbake.template.DelegatingTemplateEngine} falls back to a file with the same base name and another
+     * extension.
+     */
+    private Set<String> roots(String templateName) {
+        Set<String> result = new LinkedHashSet<String>();
+        String path = FileUtil.asPath(templateName);
+        if (templateFiles.containsKey(path)) {
+            result.add(path);
+        } else {
+            String baseName = withoutExtension(path);
+            for (String candidate : templateFiles.keySet()) {
+                if (withoutExtension(candidate).equals(baseName)) {
+                    result.add(candidate);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void scanTemplates() {
+        if (!templateFiles.isEmpty() || !templatesPath.isDirectory()) {
+            return;
+        }
+        try {
+            fileHashes.putAll(HashUtil.sha1Files(templatesPath, config.getInt(Keys.CRAWL_THREADS, 1)));
+        } catch (IOException e) {
+            throw new JBakeException("Failed to read templates: " + templatesPath, e);
+        }
+        for (String path : fileHashes.keySet()) {
+            templateFiles.put(path, new File(templatesPath, path));
+        }
+
+        Map<String, String> contents = new HashMap<String, String>();
+        for (Map.Entry<String, File> entry : templateFiles.entrySet()) {
+            try {
+                contents.put(entry.getKey(), FileUtils.readFileToString(entry.getValue(), config.getString(Keys.TEMPLATE_ENCODING)));
+            } catch (IOException e) {
+                throw new JBakeException("Failed to read template: " + entry.getValue(), e);
+            }
+        }
+
+        for (Map.Entry<String, String> entry : contents.entrySet()) {
+            Set<String> referenced = new HashSet<String>();
+            for (String candidate : templateFiles.keySet()) {
+                if (!candidate.equals(entry.getKey()) && mentions(entry.getValue(), candidate)) {
+                    referenced.add(candidate);
+                }
+            }
+            references.put(entry.getKey(), referenced);
+        }
+    }
+
+    /**
+     * Whether the given text refers to the template file with the given path, either by its name, by its name without
+     * extension after an <code>include</code> or <code>extends</code> keyword as in Jade's <code>include header</code>,
+     * or by a Thymeleaf fragment reference to its path relative to the templates folder, whose suffix may be left out.
+     */
+    private static boolean mentions(String text, String path) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        if (containsWord(text, name)) {
+            return true;
+        }
+        String baseName = withoutExtension(name);
+        Matcher matcher = BARE_REFERENCE.matcher(text);
+        while (matcher.find()) {
+            String reference = matcher.group(1);
+            if (reference.equals(baseName) || reference.endsWith("/" + baseName)) {
+                return true;
+            }
+        }
+        matcher = FRAGMENT_REFERENCE.matcher(text);
+        while (matcher.find()) {
+            String reference = matcher.group(1);
+            if (reference.equals(path)) {
+                return true;
+            }
+            for (String suffix : ThymeleafTemplateEngine.SUFFIXES) {
+                if ((reference + suffix).equals(path)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsWord(String text, String word) {
+        int index = text.indexOf(word);
+        while (index >= 0) {
+            int end = index + word.length();
+            if ((index == 0 || !isNameChar(text.charAt(index - 1)))
+                    && (end == text.length() || !isNameChar(text.charAt(end)))) {
+                return true;
+            }
+            index = text.indexOf(word, index + 1);
+        }
+        return false;
+    }
+
+    private static boolean isNameChar(char ch) {
+        return Character.isLetterOrDigit(ch) || ch == '_' || ch == '-';
+    }
+
+    private static String withoutExtension(String path) {
+        int index = path.lastIndexOf('.');
+        if (index > path.lastIndexOf('/') + 1) {
+            return path.substring(0, index);
+        }
+        return path;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
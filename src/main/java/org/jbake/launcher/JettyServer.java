@@ -142,13 +142,14 @@ public class JettyServer {
 			@Override
 			public void run() {
 				while (true) {
-					oven.bakeIncremental();
-					
+					// reset before baking, so that the bake re-renders with the changed templates
 					if (check(oven.getTemplatesPath())) {
 						LOGGER.info("Templates changed, resetting renderer.");
 						_timestamp = System.currentTimeMillis();
 						oven.resetRenderer();
 					}
+
+					oven.bakeIncremental();
 					try {
 						Thread.sleep(3000);
 					} catch (InterruptedException ex) {
@@ -4,7 +4,10 @@ public enum DocumentAttributes {
     SHA1("sha1"),
     SOURCE_URI("sourceuri"),
     RENDERED("rendered"),
-    CACHED("cached");
+    CACHED("cached"),
+    FILE_SIZE("filesize"),
+    FILE_MODIFIED("filemodified"),
+    PARSER_SIGNATURE("parsersignature");
 
     private String label;
 
@@ -45,6 +45,13 @@ public class AsciidoctorEngine extends MarkupEngine {
         assert engineClass!=null;
     }
 
+    @Override
+    public boolean isParserOption(Configuration config, String key) {
+        // with exported attributes, every configuration value is visible to the document
+        return super.isParserOption(config, key) || key.startsWith("asciidoctor")
+                || config.getBoolean(Keys.ASCIIDOCTOR_ATTRIBUTES_EXPORT, false);
+    }
+
     private Asciidoctor getEngine(Options options) {
         try {
             lock.readLock().lock();
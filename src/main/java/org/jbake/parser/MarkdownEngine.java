@@ -1,5 +1,6 @@
 package org.jbake.parser;
 
+import org.apache.commons.configuration.Configuration;
 import org.pegdown.Extensions;
 import org.pegdown.PegDownProcessor;
 
@@ -15,6 +16,11 @@ public class MarkdownEngine extends MarkupEngine {
         assert engineClass!=null;
     }
 
+    @Override
+    public boolean isParserOption(Configuration config, String key) {
+        return super.isParserOption(config, key) || key.startsWith("markdown.");
+    }
+
     @Override
     public void processBody(final ParserContext context) {
         String[] mdExts = context.getConfig().getStringArray("markdown.extensions");
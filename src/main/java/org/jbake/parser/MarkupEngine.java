@@ -40,6 +40,18 @@ public abstract class MarkupEngine implements ParserEngine {
      */
     public boolean validate(ParserContext context) { return true; }
 
+    /**
+     * Tests if the given configuration key influences the result of parsing a document with this markup engine.
+     * Stored documents are parsed again, if the value of such a key changes. Subclasses add their own options.
+     * @param config the configuration
+     * @param key the configuration key
+     * @return true if documents must be parsed again when the value of this key changes
+     */
+    public boolean isParserOption(Configuration config, String key) {
+        return key.equals(Keys.DATE_FORMAT) || key.equals(Keys.DEFAULT_STATUS) || key.equals(Keys.TAG_SANITIZE)
+                || key.equals(Keys.RENDER_ENCODING);
+    }
+
     /**
      * Processes the document header. Usually subclasses will parse the document body and look for
      * specific header metadata and export it into {@link ParserContext#getContents() contents} map.
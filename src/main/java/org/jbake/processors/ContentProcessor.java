@@ -0,0 +1,22 @@
+package org.jbake.processors;
+
+/**
+ * A step of the {@link PostProcessor} chain, applied to rendered documents.
+ *
+ * <p>
+ * Processors are registered in <code>META-INF/services/org.jbake.processors.ContentProcessor</code> and selected by
+ * their name in the {@link org.jbake.app.ConfigUtil.Keys#RENDER_PROCESSORS} configuration. A processor either works on
+ * the rendered text ({@link TextProcessor}) or on the parsed document ({@link DocumentProcessor}), the document is
+ * only parsed if some configured processor needs it. A single instance of each processor is shared by all threads.
+ * </p>
+ *
+ * @see PostProcessor
+ */
+public interface ContentProcessor {
+
+	/**
+	 * The name of this processor in the configuration.
+	 */
+	String getName();
+
+}
@@ -0,0 +1,33 @@
+package org.jbake.processors;
+
+import org.jsoup.nodes.Document;
+
+/**
+ * A {@link ContentProcessor} working on the parsed document.
+ *
+ * <p>
+ * All {@link DocumentProcessor}s following each other in the chain share a single parse of the document. A parsed
+ * document is written with the {@link HTML5Serializer}.
+ * </p>
+ */
+public interface DocumentProcessor extends ContentProcessor {
+
+	/**
+	 * Whether {@link #process(Document)} may change a document parsed from the given text.
+	 *
+	 * <p>
+	 * Allows to skip walking the document with a cheap check of the text. The document is still parsed and written,
+	 * if the chain contains a {@link DocumentProcessor}.
+	 * </p>
+	 *
+	 * @param content
+	 *        The text the document has been parsed from.
+	 */
+	boolean appliesTo(String content);
+
+	/**
+	 * Processes the given document, which is modified in place.
+	 */
+	void process(Document document);
+
+}
@@ -3,22 +3,31 @@ package org.jbake.processors;
 import java.io.Writer;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import javax.xml.stream.FactoryConfigurationError;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
-import org.w3c.dom.DOMException;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Attributes;
+import org.jsoup.nodes.DataNode;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
 
 /**
  * Algorithm to serialize a HTML {@link Document} in a HTML5-compatible way.
  * 
+ * <p>
+ * The parsed document is written in a single pass. Comments are removed and runs of white space in text are collapsed
+ * on the way.
+ * </p>
+ * 
  * @author <a href="mailto:haui@haumacher.de">Bernhard Haumacher</a>
  * @version $Revision: $ $Author: $ $Date: $
  */
@@ -39,8 +48,7 @@ public class HTML5Serializer {
 	 */
 	public static void serialize(Writer out, Document document)
 			throws XMLStreamException, FactoryConfigurationError {
-		XMLOutputFactory factory = XMLOutputFactory.newFactory();
-		XMLStreamWriter xml = factory.createXMLStreamWriter(out);
+		XMLStreamWriter xml = OutputFactory.INSTANCE.createXMLStreamWriter(out);
 		try {
 			serialize(xml, document);
 		} finally {
@@ -59,21 +67,24 @@ public class HTML5Serializer {
 	public static void serialize(XMLStreamWriter writer, Document document)
 			throws XMLStreamException {
 		writer.writeStartDocument("utf-8", "1.0");
-		serialize(writer, document.getDocumentElement());
+		for (Node child : document.childNodes()) {
+			if (child instanceof Element) {
+				serialize(writer, (Element) child);
+				break;
+			}
+		}
 		writer.writeEndDocument();
 	}
 
 	private static void serialize(XMLStreamWriter xml, Element element)
 			throws XMLStreamException {
-		if (isVoid(element.getTagName())) {
-			xml.writeEmptyElement(element.getTagName());
+		if (isVoid(element.tagName())) {
+			xml.writeEmptyElement(element.tagName());
 			serializeAttributes(xml, element);
 		} else {
-			xml.writeStartElement(element.getTagName());
+			xml.writeStartElement(element.tagName());
 			serializeAttributes(xml, element);
-			for (Node child = element
-					.getFirstChild(); child != null; child = child
-							.getNextSibling()) {
+			for (Node child : element.childNodes()) {
 				serialize(xml, child);
 			}
 			xml.writeEndElement();
@@ -82,32 +93,88 @@ public class HTML5Serializer {
 
 	private static void serialize(XMLStreamWriter xml, Node child)
 			throws XMLStreamException {
-		switch (child.getNodeType()) {
-		case Node.COMMENT_NODE:
-			// Remove.
-			break;
-		case Node.ELEMENT_NODE:
+		if (child instanceof Element) {
 			serialize(xml, (Element) child);
-			break;
-		case Node.TEXT_NODE:
-		case Node.CDATA_SECTION_NODE:
-			xml.writeCharacters(child.getTextContent());
-			break;
+		} else if (child instanceof TextNode) {
+			xml.writeCharacters(collapseSpace(((TextNode) child).text()));
+		} else if (child instanceof DataNode) {
+			xml.writeCharacters(collapseSpace(((DataNode) child).getWholeData()));
+		}
+		// Comments and other nodes are removed.
+	}
+
+	/**
+	 * Writes the attributes of the given element in alphabetical order.
+	 */
+	private static void serializeAttributes(XMLStreamWriter xml, Element element) throws XMLStreamException {
+		Attributes attributes = element.attributes();
+		if (attributes.size() == 1) {
+			for (Attribute attribute : attributes) {
+				xml.writeAttribute(attribute.getKey(), attribute.getValue());
+			}
+		} else if (attributes.size() > 1) {
+			Map<String, String> sorted = new TreeMap<String, String>();
+			for (Attribute attribute : attributes) {
+				sorted.put(attribute.getKey(), attribute.getValue());
+			}
+			for (Map.Entry<String, String> attribute : sorted.entrySet()) {
+				xml.writeAttribute(attribute.getKey(), attribute.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Replaces each run of two or more white space characters with a single space.
+	 */
+	static String collapseSpace(String text) {
+		int length = text.length();
+		for (int n = 1; n < length; n++) {
+			if (isSpace(text.charAt(n)) && isSpace(text.charAt(n - 1))) {
+				return collapseSpace(text, n - 1);
+			}
 		}
+		// Nothing to collapse, which is the common case.
+		return text;
 	}
 
-	private static void serializeAttributes(XMLStreamWriter xml,
-			Element element) throws DOMException, XMLStreamException {
-		NamedNodeMap attributes = element.getAttributes();
-		for (int n = 0, cnt = attributes.getLength(); n < cnt; n++) {
-			Node attribute = attributes.item(n);
-			xml.writeAttribute(attribute.getNodeName(),
-					attribute.getNodeValue());
+	private static String collapseSpace(String text, int firstRun) {
+		StringBuilder result = new StringBuilder(text.length());
+		result.append(text, 0, firstRun);
+		boolean inSpace = false;
+		for (int n = firstRun, length = text.length(); n < length; n++) {
+			char ch = text.charAt(n);
+			if (isSpace(ch)) {
+				if (!inSpace && (n + 1 == length || !isSpace(text.charAt(n + 1)))) {
+					// A single white space character is kept as it is.
+					result.append(ch);
+				} else if (!inSpace) {
+					result.append(' ');
+					inSpace = true;
+				}
+			} else {
+				inSpace = false;
+				result.append(ch);
+			}
 		}
+		return result.toString();
+	}
+
+	/**
+	 * Whether the given character is white space in the sense of the <code>\s</code> regular expression class.
+	 */
+	private static boolean isSpace(char ch) {
+		return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000B' || ch == '\f' || ch == '\r';
 	}
 
 	private static boolean isVoid(String localName) {
 		return VOID_ELEMENTS.contains(localName);
 	}
 
+	/**
+	 * Lazily looked up {@link XMLOutputFactory}, which is thread-safe for creating writers.
+	 */
+	private static class OutputFactory {
+		static final XMLOutputFactory INSTANCE = XMLOutputFactory.newFactory();
+	}
+
 }
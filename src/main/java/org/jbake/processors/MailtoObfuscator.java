@@ -1,173 +1,143 @@
 package org.jbake.processors;
 
-import org.w3c.dom.Comment;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.Text;
+import org.jsoup.nodes.DataNode;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.parser.Tag;
 
 /**
  * Transformation rewriting <code>mailto:</code> links using JavaScript code
  * that makes hard grabbing e-mail addresses from the page source.
  * 
+ * <p>
+ * Registered as {@link ContentProcessor} with the name <code>mailto</code>.
+ * </p>
+ * 
  * @author <a href="mailto:haui@haumacher.de">Bernhard Haumacher</a>
  * @version $Revision: $ $Author: $ $Date: $
  */
-public class MailtoObfuscator {
+public class MailtoObfuscator implements DocumentProcessor {
 
 	/**
-	 * Transforms <code>mailto:</code> links in the given {@link Document}.
-	 * 
-	 * <p>
-	 * The given {@link Document} is internally modified.
-	 * </p>
+	 * Prefix of the links to rewrite.
 	 */
-	public static void processDocument(Document document) {
-		processChildren(document);
-	}
+	public static final String MAILTO = "mailto:";
 
-	private static void processElement(Element element) {
-		encodeMailTo(element);
-		processChildren(element);
+	@Override
+	public String getName() {
+		return "mailto";
 	}
 
 	/**
-	 * Descends to the children of the given {@link Node}.
-	 * 
-	 * @param node
-	 *        The {@link Node} whose children should be processed.
+	 * Only pages mentioning <code>mailto:</code> somewhere are searched for links.
 	 */
-	private static void processChildren(Node node) {
-		for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
-			processNode(child);
-		}
+	@Override
+	public boolean appliesTo(String content) {
+		return content.contains(MAILTO);
 	}
 
 	/**
-	 * Processes the given {@link Node}.
-	 * 
-	 * @param node
-	 *        The {@link Node} to process the concrete transformation method is
-	 *        called depending on the concrete type of this {@link Node}.
-	 * 
-	 * @see #processElement(Element)
-	 * @see #processText(Text)
-	 * @see #processComment(Comment)
+	 * Transforms <code>mailto:</code> links in the given {@link Document}.
 	 */
-	private static void processNode(Node node) {
-		switch (node.getNodeType()) {
-		case Node.COMMENT_NODE:
-			processComment((Comment) node);
-			break;
-		case Node.ELEMENT_NODE:
-			processElement((Element)node);
-			break;
-		case Node.TEXT_NODE:
-		case Node.CDATA_SECTION_NODE:
-			processText((Text)node);
-			break;
+	@Override
+	public void process(Document document) {
+		for (Element link : document.getElementsByTag("a")) {
+			if (isMailToLink(link)) {
+				encodeMailTo(link);
+			}
 		}
 	}
 
 	/**
-	 * Processes the given {@link Text} node.
-	 * 
-	 * @param text
-	 *        The {@link Text} node to process.
+	 * Replaces the given <code>mailto:</code> link.
 	 */
-	private static void processText(Text text) {
-		text.setTextContent(text.getTextContent().replaceAll("\\s\\s+", " "));
-	}
+	private static void encodeMailTo(Element element) {
+		String mailto = element.attr("href");
 
-	/**
-	 * Processes the given {@link Comment} node.
-	 * 
-	 * @param comment
-	 *        The {@link Comment} node to process.
-	 */
-	private static void processComment(Comment comment) {
-		// No action.
-	}
+		/*
+		 * var addr = 'haui' + String.fromCharCode(64) + 'haumacher' + String.fromCharCode(46) + 'de';
+		 * var link = document.createElement('a');
+		 * link.setAttribute('href', 'mai' + 'lto' + ':' + addr);
+		 * link.appendChild(document.createTextNode(addr));
+		 * this.parentNode.replaceChild(link, this);
+		 * return false;
+		 */
+		mailto = mailto.replace(MAILTO, "");
+		mailto = mailto.replace(".", "' + String.fromCharCode(46) + '");
+		mailto = mailto.replace("@", "' + String.fromCharCode(64) + '");
 
-	/**
-	 * Transforms the given {@link Element} node, if it is a
-	 * <code>mailto:</code> link.
-	 */
-	private static void encodeMailTo(Element element) {
-		if (isMailToLink(element)) {
-			Document document = element.getOwnerDocument();
-			
-			String mailto = element.getAttribute("href");
-			
-			/*
-			 * var addr = 'haui' + String.fromCharCode(64) + 'haumacher' + String.fromCharCode(46) + 'de';
-			 * var link = document.createElement('a');
-			 * link.setAttribute('href', 'mai' + 'lto' + ':' + addr);
-			 * link.appendChild(document.createTextNode(addr));
-			 * this.parentNode.replaceChild(link, this);
-			 * return false;
-			 */
-			mailto = mailto.replace("mailto:", "");
-			mailto = mailto.replace(".", "' + String.fromCharCode(46) + '");
-			mailto = mailto.replace("@", "' + String.fromCharCode(64) + '");
-			
-			StringBuilder script = new StringBuilder();
-			script.append("var addr = '" + mailto + "';");
-			script.append("var link = document.createElement('a');");
-			script.append("link.setAttribute('href', 'mai' + 'lto' + ':' + addr);");
-			script.append("link.appendChild(document.createTextNode(addr));");
-			script.append("this.parentNode.replaceChild(link, this);");
-			script.append("return false;");
-			
-			String labelBefore = element.getTextContent();
-			int start = labelBefore.indexOf('<');
-			int at = labelBefore.indexOf('@');
-			int stop = labelBefore.lastIndexOf('>');
-			
-			String newLabel;
-			if (at >= 0) {
-				if (start >= 0 && stop >= start) {
-					newLabel = labelBefore.substring(start + 1, at);
-				} else {
-					newLabel = labelBefore.substring(0, at);
-				}
+		StringBuilder script = new StringBuilder();
+		script.append("var addr = '" + mailto + "';");
+		script.append("var link = document.createElement('a');");
+		script.append("link.setAttribute('href', 'mai' + 'lto' + ':' + addr);");
+		script.append("link.appendChild(document.createTextNode(addr));");
+		script.append("this.parentNode.replaceChild(link, this);");
+		script.append("return false;");
+
+		String labelBefore = textContent(element);
+		int start = labelBefore.indexOf('<');
+		int at = labelBefore.indexOf('@');
+		int stop = labelBefore.lastIndexOf('>');
+
+		String newLabel;
+		if (at >= 0) {
+			if (start >= 0 && stop >= start) {
+				newLabel = labelBefore.substring(start + 1, at);
 			} else {
-				newLabel = labelBefore;
+				newLabel = labelBefore.substring(0, at);
 			}
-			
-			element.setAttribute("href", "#");
-			Element button = document.createElement("button");
-			button.setAttribute("onclick", script.toString());
-			Text label = document.createTextNode(newLabel + "@...");
-			button.appendChild(label);
-			
-			Node parent = element.getParentNode();
-			if (start >= 0) {
-				parent.insertBefore(document.createTextNode(labelBefore.substring(0, start) + " <"), element);
-			}
-			parent.insertBefore(button, element);
-			if (start >= 0) {
-				parent.insertBefore(document.createTextNode(">"), element);
-			}
-			
-			parent.removeChild(element);
+		} else {
+			newLabel = labelBefore;
+		}
+
+		Element button = new Element(Tag.valueOf("button"), element.baseUri());
+		button.attr("onclick", script.toString());
+		button.appendChild(new TextNode(newLabel + "@...", element.baseUri()));
+
+		if (start >= 0) {
+			element.before(new TextNode(labelBefore.substring(0, start) + " <", element.baseUri()));
+		}
+		element.before(button);
+		if (start >= 0) {
+			element.before(new TextNode(">", element.baseUri()));
 		}
+
+		element.remove();
 	}
 
 	/**
 	 * Decides whether the given {@link Element} is a <code>mailto:</code> link.
 	 */
-	private static boolean isMailToLink(Element element) {
-		if (!element.getTagName().equals("a")) {
+	public static boolean isMailToLink(Element element) {
+		if (!element.tagName().equals("a")) {
 			return false;
 		}
-		
-		String href = element.getAttribute("href");
-		if (href == null) {
-			return false;
+
+		return element.attr("href").startsWith(MAILTO);
+	}
+
+	/**
+	 * The text of the given element and all its descendants, as shown in the
+	 * page.
+	 */
+	private static String textContent(Element element) {
+		StringBuilder result = new StringBuilder();
+		appendText(result, element);
+		return result.toString();
+	}
+
+	private static void appendText(StringBuilder result, Node node) {
+		for (Node child : node.childNodes()) {
+			if (child instanceof TextNode) {
+				result.append(((TextNode) child).text());
+			} else if (child instanceof DataNode) {
+				result.append(((DataNode) child).getWholeData());
+			} else if (child instanceof Element) {
+				appendText(result, child);
+			}
 		}
-		
-		return href.startsWith("mailto:");
 	}
 
 }
@@ -1,24 +1,91 @@
 package org.jbake.processors;
 
+import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
 
-import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.stream.FactoryConfigurationError;
 import javax.xml.stream.XMLStreamException;
 
+import org.apache.commons.configuration.Configuration;
+import org.jbake.app.ConfigUtil.Keys;
+import org.jbake.app.JBakeException;
 import org.jbake.template.RenderingException;
 import org.jsoup.Jsoup;
-import org.w3c.dom.Document;
+import org.jsoup.nodes.Document;
 
 /**
  * Algorithm for post-processing generated contents.
  * 
+ * <p>
+ * Applies a chain of {@link ContentProcessor}s. The content is only parsed if some processor is a
+ * {@link DocumentProcessor}, all document processors following each other share the parsed document.
+ * </p>
+ * 
  * @author <a href="mailto:haui@haumacher.de">Bernhard Haumacher</a>
  * @version $Revision: $ $Author: $ $Date: $
  */
 public class PostProcessor {
 
+	private final List<ContentProcessor> processors;
+
+	/**
+	 * Creates a {@link PostProcessor}.
+	 * 
+	 * @param processors
+	 *        The processors to apply in the given order.
+	 * @throws JBakeException
+	 *         If a processor is neither a {@link DocumentProcessor} nor a {@link TextProcessor}.
+	 */
+	public PostProcessor(List<ContentProcessor> processors) {
+		for (ContentProcessor processor : processors) {
+			if (!(processor instanceof DocumentProcessor) && !(processor instanceof TextProcessor)) {
+				throw new JBakeException("Post-processor '" + processor.getName() + "' (" + processor.getClass().getName()
+						+ ") is neither a " + DocumentProcessor.class.getSimpleName() + " nor a "
+						+ TextProcessor.class.getSimpleName() + ".");
+			}
+		}
+		this.processors = new ArrayList<ContentProcessor>(processors);
+	}
+
+	/**
+	 * Creates the {@link PostProcessor} configured for the given document
+	 * type.
+	 * 
+	 * @param config
+	 *        The configuration, see {@link Keys#RENDER_PROCESSORS}.
+	 * @param docType
+	 *        The type of the documents to process.
+	 * @throws JBakeException
+	 *         If a configured processor is unknown or of an unsupported kind.
+	 */
+	public static PostProcessor forType(Configuration config, String docType) {
+		String key = Keys.RENDER_PROCESSORS + "." + docType;
+		if (!config.containsKey(key)) {
+			key = Keys.RENDER_PROCESSORS;
+		}
+		Map<String, ContentProcessor> available = Registry.PROCESSORS;
+		List<ContentProcessor> processors = new ArrayList<ContentProcessor>();
+		for (String name : config.getStringArray(key)) {
+			name = name.trim();
+			if (name.isEmpty()) {
+				continue;
+			}
+			ContentProcessor processor = available.get(name);
+			if (processor == null) {
+				throw new JBakeException("Unknown post-processor '" + name + "' in configuration '" + key + "', available: " + available.keySet());
+			}
+			processors.add(processor);
+		}
+		return new PostProcessor(processors);
+	}
+
 	/**
 	 * Post-processes the given buffered content and flushes it the the given
 	 * {@link Writer}.
@@ -28,17 +95,64 @@ public class PostProcessor {
 	 * @param out
 	 *        The {@link Writer} to write the postprocessing result to.
 	 */
-	public static void postProcess(StringWriter buffer, Writer out) throws RenderingException {
+	public void postProcess(StringWriter buffer, Writer out) throws RenderingException {
 		try {
-			Document document = Jsoup2Dom.dom(Jsoup.parse(buffer.toString()));
-			MailtoObfuscator.processDocument(document);
-			HTML5Serializer.serialize(out, document);
+			String text = buffer.toString();
+			Document document = null;
+			// the text the document has been parsed from, as long as no processor has modified the document
+			String parsed = null;
+			for (ContentProcessor processor : processors) {
+				if (processor instanceof DocumentProcessor) {
+					DocumentProcessor documentProcessor = (DocumentProcessor) processor;
+					if (document == null) {
+						document = Jsoup.parse(text);
+						parsed = text;
+						text = null;
+					}
+					if (parsed == null || documentProcessor.appliesTo(parsed)) {
+						documentProcessor.process(document);
+						parsed = null;
+					}
+				} else {
+					if (text == null) {
+						text = serialize(document);
+						document = null;
+					}
+					text = ((TextProcessor) processor).process(text);
+				}
+			}
+			if (document != null) {
+				HTML5Serializer.serialize(out, document);
+			} else {
+				out.write(text);
+			}
+		} catch (IOException ex) {
+			throw new RenderingException(ex);
 		} catch (XMLStreamException ex) {
 			throw new RenderingException(ex);
 		} catch (FactoryConfigurationError ex) {
 			throw new RenderingException(ex);
-		} catch (ParserConfigurationException ex) {
-			throw new RenderingException(ex);
+		}
+	}
+
+	private static String serialize(Document document) throws XMLStreamException {
+		StringWriter result = new StringWriter();
+		HTML5Serializer.serialize(result, document);
+		return result.toString();
+	}
+
+	/**
+	 * All {@link ContentProcessor}s found on the class path, by name.
+	 */
+	private static class Registry {
+		static final Map<String, ContentProcessor> PROCESSORS;
+
+		static {
+			Map<String, ContentProcessor> processors = new HashMap<String, ContentProcessor>();
+			for (ContentProcessor processor : ServiceLoader.load(ContentProcessor.class)) {
+				processors.put(processor.getName(), processor);
+			}
+			PROCESSORS = Collections.unmodifiableMap(processors);
 		}
 	}
 
@@ -0,0 +1,17 @@
+package org.jbake.processors;
+
+/**
+ * A {@link ContentProcessor} working on the rendered text.
+ */
+public interface TextProcessor extends ContentProcessor {
+
+	/**
+	 * Processes the given text.
+	 *
+	 * @param content
+	 *        The rendered text, or the output of the previous processor.
+	 * @return The processed text.
+	 */
+	String process(String content);
+
+}
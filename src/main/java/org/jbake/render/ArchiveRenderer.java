@@ -1,15 +1,23 @@
 package org.jbake.render;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.commons.configuration.CompositeConfiguration;
 import org.jbake.app.ConfigUtil.Keys;
 import org.jbake.app.ContentStore;
+import org.jbake.app.Crawler.Attributes;
 import org.jbake.app.Renderer;
 import org.jbake.template.RenderingException;
 
 
-public class ArchiveRenderer implements RenderingTool {
+public class ArchiveRenderer implements DigestRenderingTool {
+
+	@Override
+	public String getTemplateType() {
+		return "archive";
+	}
 
 	@Override
 	public int render(Renderer renderer, ContentStore db, File destination, File templatesPath, CompositeConfiguration config) throws RenderingException {
@@ -25,4 +33,26 @@ public class ArchiveRenderer implements RenderingTool {
 		}
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Covers the <code>uri</code>, <code>title</code>, <code>date</code> and <code>tags</code> of the published
+	 * posts listed in the archive, and the <code>uri</code> and <code>title</code> of the published pages, e.g. for a
+	 * menu.
+	 */
+	@Override
+	public String getContentDigest(ContentStore db, CompositeConfiguration config) {
+		return new ContentDigest(config)
+				.add(db.getPublishedPosts(), Attributes.URI, Attributes.TITLE, Attributes.DATE, Attributes.TAGS)
+				.add(db.getPublishedPages(), Attributes.URI, Attributes.TITLE)
+				.digest();
+	}
+
+	@Override
+	public List<String> getOutputFiles(ContentStore db, CompositeConfiguration config) {
+		if (config.getBoolean(Keys.RENDER_ARCHIVE)) {
+			return Collections.singletonList(config.getString(Keys.ARCHIVE_FILE));
+		} else {
+			return Collections.emptyList();
+		}
+	}
+
+}
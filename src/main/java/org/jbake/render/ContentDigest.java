@@ -0,0 +1,58 @@
+package org.jbake.render;
+
+import org.apache.commons.configuration.CompositeConfiguration;
+import org.jbake.app.DocumentList;
+import org.jbake.app.HashUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the digest of rendered output from the configuration and projections of the documents it shows.
+ */
+public class ContentDigest {
+
+	private final List<String> values = new ArrayList<String>();
+
+	/**
+	 * Creates a {@link ContentDigest} covering the whole configuration.
+	 */
+	public ContentDigest(CompositeConfiguration config) {
+		Iterator<String> keys = config.getKeys();
+		while (keys.hasNext()) {
+			String key = keys.next();
+			values.add(key);
+			values.add(String.valueOf(config.getProperty(key)));
+		}
+	}
+
+	/**
+	 * Adds the given values.
+	 */
+	public ContentDigest add(String... values) {
+		this.values.addAll(Arrays.asList(values));
+		return this;
+	}
+
+	/**
+	 * Adds the given attributes of all documents, in the order of the list.
+	 */
+	public ContentDigest add(DocumentList documents, String... attributes) {
+		values.add(String.valueOf(documents.size()));
+		for (Map<String, Object> document : documents) {
+			for (String attribute : attributes) {
+				Object value = document.get(attribute);
+				values.add(value instanceof Object[] ? Arrays.toString((Object[]) value) : String.valueOf(value));
+			}
+		}
+		return this;
+	}
+
+	public String digest() {
+		return HashUtil.sha1(values);
+	}
+
+}
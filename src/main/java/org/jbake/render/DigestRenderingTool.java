@@ -0,0 +1,38 @@
+package org.jbake.render;
+
+import java.util.List;
+
+import org.apache.commons.configuration.CompositeConfiguration;
+import org.jbake.app.ContentStore;
+
+/**
+ * A {@link TemplateRenderingTool} whose output only depends on a part of the content.
+ *
+ * <p>
+ * If content has changed since the last bake but neither the templates of the tool nor its digest, the tool is not
+ * invoked, unless one of its {@link #getOutputFiles(ContentStore, CompositeConfiguration) output files} is missing.
+ * Sites whose templates show document attributes not covered by the digest disable this with
+ * {@link org.jbake.app.ConfigUtil.Keys#RENDER_DIGEST}.
+ * </p>
+ */
+public interface DigestRenderingTool extends TemplateRenderingTool {
+
+	/**
+	 * Computes a digest of all inputs the output of this tool depends on.
+	 *
+	 * @param db The content.
+	 * @param config The configuration of the bake.
+	 * @return A string that only changes if the output of this tool changes.
+	 */
+	String getContentDigest(ContentStore db, CompositeConfiguration config);
+
+	/**
+	 * The files written by this tool.
+	 *
+	 * @param db The content.
+	 * @param config The configuration of the bake.
+	 * @return The paths of the output files relative to the destination folder, empty if the tool renders nothing.
+	 */
+	List<String> getOutputFiles(ContentStore db, CompositeConfiguration config);
+
+}
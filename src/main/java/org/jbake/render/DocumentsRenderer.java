@@ -1,6 +1,7 @@
 package org.jbake.render;
 
 import org.apache.commons.configuration.CompositeConfiguration;
+import org.jbake.app.ConfigUtil.Keys;
 import org.jbake.app.ContentStore;
 import org.jbake.app.DocumentList;
 import org.jbake.app.Renderer;
@@ -8,16 +9,50 @@ import org.jbake.model.DocumentTypes;
 import org.jbake.template.RenderingException;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+/**
+ * Renders all documents that are not yet rendered.
+ *
+ * <p>
+ * If {@link Keys#RENDER_THREADS} is greater than one, documents are rendered by a pool of worker threads. Errors are
+ * reported in the same order as in a single threaded run.
+ * </p>
+ */
 public class DocumentsRenderer implements RenderingTool {
 
     @Override
     public int render(Renderer renderer, ContentStore db, File destination, File templatesPath, CompositeConfiguration config) throws RenderingException {
-        int renderedCount = 0;
         final List<String> errors = new LinkedList<String>();
+        int renderedCount;
+        int threads = config.getInt(Keys.RENDER_THREADS, 1);
+        if (threads > 1) {
+            renderedCount = renderParallel(renderer, db, threads, errors);
+        } else {
+            renderedCount = renderSerial(renderer, db, errors);
+        }
+        if (!errors.isEmpty()) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Failed to render documents. Cause(s):");
+            for (String error : errors) {
+                sb.append("\n" + error);
+            }
+            throw new RenderingException(sb.toString());
+        } else {
+            return renderedCount;
+        }
+    }
+
+    private int renderSerial(Renderer renderer, ContentStore db, List<String> errors) {
+        int renderedCount = 0;
         for (String docType : DocumentTypes.getDocumentTypes()) {
             DocumentList documentList = db.getUnrenderedContent(docType);
             for (Map<String, Object> page : documentList) {
@@ -29,15 +64,50 @@ public class DocumentsRenderer implements RenderingTool {
                 }
             }
         }
-        if (!errors.isEmpty()) {
-            StringBuilder sb = new StringBuilder();
-            sb.append("Failed to render documents. Cause(s):");
-            for (String error : errors) {
-                sb.append("\n" + error);
+        return renderedCount;
+    }
+
+    private int renderParallel(final Renderer renderer, final ContentStore db, int threads, List<String> errors) throws RenderingException {
+        List<Map<String, Object>> pages = new ArrayList<Map<String, Object>>();
+        for (String docType : DocumentTypes.getDocumentTypes()) {
+            pages.addAll(db.getUnrenderedContent(docType));
+        }
+        if (pages.isEmpty()) {
+            return 0;
+        }
+
+        int renderedCount = 0;
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(threads, pages.size()));
+        try {
+            List<Future<?>> results = new ArrayList<Future<?>>(pages.size());
+            for (final Map<String, Object> page : pages) {
+                results.add(workers.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        renderer.render(page);
+                        return null;
+                    }
+                }));
             }
-            throw new RenderingException(sb.toString());
-        } else {
-            return renderedCount;
+
+            for (Future<?> result : results) {
+                try {
+                    result.get();
+                    renderedCount++;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    errors.add(cause.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RenderingException("Rendering documents was interrupted.", e);
+        } finally {
+            workers.shutdownNow();
         }
+        return renderedCount;
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,26 @@
 package org.jbake.render;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.commons.configuration.CompositeConfiguration;
 import org.jbake.app.ConfigUtil.Keys;
 import org.jbake.app.ContentStore;
+import org.jbake.app.Crawler.Attributes;
 import org.jbake.app.Renderer;
+import org.jbake.model.DocumentAttributes;
 import org.jbake.template.RenderingException;
 
 
-public class FeedRenderer implements RenderingTool {
+public class FeedRenderer implements DigestRenderingTool {
+
+	private static final String SHA1 = String.valueOf(DocumentAttributes.SHA1);
+
+	@Override
+	public String getTemplateType() {
+		return "feed";
+	}
 
 	@Override
 	public int render(Renderer renderer, ContentStore db, File destination, File templatesPath, CompositeConfiguration config) throws RenderingException {
@@ -25,4 +36,23 @@ public class FeedRenderer implements RenderingTool {
 		}
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Covers the <code>uri</code> and source <code>sha1</code> of the published posts, pages are not part of the feed.
+	 */
+	@Override
+	public String getContentDigest(ContentStore db, CompositeConfiguration config) {
+		return new ContentDigest(config)
+				.add(db.getPublishedPosts(), Attributes.URI, SHA1)
+				.digest();
+	}
+
+	@Override
+	public List<String> getOutputFiles(ContentStore db, CompositeConfiguration config) {
+		if (config.getBoolean(Keys.RENDER_FEED)) {
+			return Collections.singletonList(config.getString(Keys.FEED_FILE));
+		} else {
+			return Collections.emptyList();
+		}
+	}
+
+}
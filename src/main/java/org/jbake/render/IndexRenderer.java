@@ -1,14 +1,25 @@
 package org.jbake.render;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.commons.configuration.CompositeConfiguration;
 import org.jbake.app.ConfigUtil.Keys;
 import org.jbake.app.ContentStore;
+import org.jbake.app.Crawler.Attributes;
 import org.jbake.app.Renderer;
+import org.jbake.model.DocumentAttributes;
 import org.jbake.template.RenderingException;
 
-public class IndexRenderer implements RenderingTool {
+public class IndexRenderer implements DigestRenderingTool {
+
+	private static final String SHA1 = String.valueOf(DocumentAttributes.SHA1);
+
+	@Override
+	public String getTemplateType() {
+		return "masterindex";
+	}
 
 	@Override
 	public int render(Renderer renderer, ContentStore db, File destination, File templatesPath, CompositeConfiguration config) throws RenderingException {
@@ -24,4 +35,26 @@ public class IndexRenderer implements RenderingTool {
 		}
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Covers the <code>uri</code> and source <code>sha1</code> of the published posts, as the index may show their
+	 * complete content, and the <code>uri</code> and <code>title</code> of the published pages, e.g. for a menu.
+	 */
+	@Override
+	public String getContentDigest(ContentStore db, CompositeConfiguration config) {
+		return new ContentDigest(config)
+				.add(db.getPublishedPosts(), Attributes.URI, SHA1)
+				.add(db.getPublishedPages(), Attributes.URI, Attributes.TITLE)
+				.digest();
+	}
+
+	@Override
+	public List<String> getOutputFiles(ContentStore db, CompositeConfiguration config) {
+		// the index is not rendered without posts, the name of the first page of a paginated index is the index file
+		if (config.getBoolean(Keys.RENDER_INDEX) && db.getDocumentCount("post") > 0) {
+			return Collections.singletonList(config.getString(Keys.INDEX_FILE));
+		} else {
+			return Collections.emptyList();
+		}
+	}
+
+}
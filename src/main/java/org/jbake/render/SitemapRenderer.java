@@ -1,15 +1,24 @@
 package org.jbake.render;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.commons.configuration.CompositeConfiguration;
 import org.jbake.app.ConfigUtil.Keys;
 import org.jbake.app.ContentStore;
+import org.jbake.app.Crawler.Attributes;
 import org.jbake.app.Renderer;
+import org.jbake.model.DocumentTypes;
 import org.jbake.template.RenderingException;
 
 
-public class SitemapRenderer implements RenderingTool {
+public class SitemapRenderer implements DigestRenderingTool {
+
+	@Override
+	public String getTemplateType() {
+		return "sitemap";
+	}
 
 	@Override
 	public int render(Renderer renderer, ContentStore db, File destination, File templatesPath, CompositeConfiguration config) throws RenderingException {
@@ -25,4 +34,26 @@ public class SitemapRenderer implements RenderingTool {
 		}
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Covers the <code>uri</code> and <code>date</code> of the published documents of all types, the only attributes
+	 * a sitemap lists.
+	 */
+	@Override
+	public String getContentDigest(ContentStore db, CompositeConfiguration config) {
+		ContentDigest digest = new ContentDigest(config);
+		for (String docType : DocumentTypes.getDocumentTypes()) {
+			digest.add(db.getPublishedContent(docType), Attributes.URI, Attributes.DATE);
+		}
+		return digest.digest();
+	}
+
+	@Override
+	public List<String> getOutputFiles(ContentStore db, CompositeConfiguration config) {
+		if (config.getBoolean(Keys.RENDER_SITEMAP)) {
+			return Collections.singletonList(config.getString(Keys.SITEMAP_FILE));
+		} else {
+			return Collections.emptyList();
+		}
+	}
+
+}
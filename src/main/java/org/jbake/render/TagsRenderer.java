@@ -5,11 +5,17 @@ import java.io.File;
 import org.apache.commons.configuration.CompositeConfiguration;
 import org.jbake.app.ConfigUtil.Keys;
 import org.jbake.app.ContentStore;
+import org.jbake.app.Crawler.Attributes;
 import org.jbake.app.Renderer;
 import org.jbake.template.RenderingException;
 
 
-public class TagsRenderer implements RenderingTool {
+public class TagsRenderer implements TemplateRenderingTool {
+
+	@Override
+	public String getTemplateType() {
+		return Attributes.TAG;
+	}
 
 	@Override
 	public int render(Renderer renderer, ContentStore db, File destination, File templatesPath, CompositeConfiguration config) throws RenderingException {
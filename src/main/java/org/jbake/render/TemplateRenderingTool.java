@@ -0,0 +1,18 @@
+package org.jbake.render;
+
+/**
+ * A {@link RenderingTool} that renders its output from a single template type.
+ *
+ * <p>
+ * If no content has changed since the last bake, such a tool is only invoked if the templates of its template type
+ * have changed. Tools not implementing this interface are invoked whenever anything has changed.
+ * </p>
+ */
+public interface TemplateRenderingTool extends RenderingTool {
+
+	/**
+	 * The template type used by this tool, as in the <code>template.&lt;type&gt;.file</code> configuration key.
+	 */
+	String getTemplateType();
+
+}
@@ -17,12 +17,7 @@
  */
 package org.jbake.server;
 
-import java.io.IOException;
-
-import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
 
 import org.jbake.app.Oven;
 
@@ -37,16 +32,5 @@ public abstract class JBakeServlet extends HttpServlet {
 	public final Oven oven() {
 		return oven;
 	}
-	
-	@Override
-	protected void service(HttpServletRequest req, HttpServletResponse resp)
-			throws ServletException, IOException {
-		oven.getDB().enter();
-		try {
-			super.service(req, resp);
-		} finally {
-			oven.getDB().exit();
-		}
-	}
 
 }
@@ -0,0 +1,24 @@
+package org.jbake.template;
+
+import java.util.Map;
+
+import org.jbake.app.ContentStore;
+
+/**
+ * A {@link ModelExtractor} whose result only depends on the documents in the {@link ContentStore} and on the inputs
+ * described by its cache key. {@link ModelExtractors} computes its result once and shares it between all pages
+ * rendered until the documents change.
+ *
+ * @param <Type> the type of data returned by this model extractor
+ */
+public interface CacheableModelExtractor<Type extends Object> extends ModelExtractor<Type> {
+
+	/**
+	 * Describes all inputs of {@link #get(ContentStore, Map, String)} apart from the stored documents and the key.
+	 *
+	 * @return A value with proper <code>equals</code> and <code>hashCode</code> implementations, <code>null</code> if
+	 *         there are no further inputs.
+	 */
+	Object getCacheKey(ContentStore db, Map model, String key);
+
+}
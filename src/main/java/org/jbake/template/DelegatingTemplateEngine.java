@@ -1,6 +1,8 @@
 package org.jbake.template;
 
 import org.apache.commons.configuration.CompositeConfiguration;
+import org.apache.commons.configuration.event.ConfigurationEvent;
+import org.apache.commons.configuration.event.ConfigurationListener;
 import org.jbake.app.ConfigUtil.Keys;
 import org.jbake.app.ContentStore;
 import org.jbake.app.FileUtil;
@@ -13,9 +15,13 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A template which is responsible for delegating to a supported template engine,
@@ -28,43 +34,115 @@ public class DelegatingTemplateEngine extends AbstractTemplateEngine {
 
     private final TemplateEngines renderers;
 
+    /**
+     * Names of the template files actually used, indexed by the configured template name.
+     */
+    private final ConcurrentMap<String, String> resolvedTemplates = new ConcurrentHashMap<String, String>();
+
+    /**
+     * The <code>config</code> model shared by all rendered documents, <code>null</code> if it has to be built again.
+     */
+    private volatile Map<String, Object> configModel;
+
     public DelegatingTemplateEngine(final CompositeConfiguration config, final ContentStore db, final File destination, final File templatesPath) {
         super(config, db, destination, templatesPath);
         this.renderers = new TemplateEngines(config, db, destination, templatesPath);
+        config.addConfigurationListener(new ConfigModelInvalidator(config, this));
     }
 
     @Override
     public void renderDocument(final Map<String, Object> model, String templateName, final Writer writer) throws RenderingException {
         model.put("version", config.getString(Keys.VERSION));
-        Map<String, Object> configModel = new HashMap<String, Object>();
-        Iterator<String> configKeys = config.getKeys();
-        while (configKeys.hasNext()) {
-            String key = configKeys.next();
-            //replace "." in key so you can use dot notation in templates
-            configModel.put(key.replace(".", "_"), config.getProperty(key));
+        model.put("config", getConfigModel());
+        templateName = resolveTemplate(templateName);
+        String ext = FileUtil.fileExt(templateName);
+        AbstractTemplateEngine engine = renderers.getEngine(ext);
+        if (engine != null) {
+            engine.renderDocument(model, templateName, writer);
+        } else {
+            LOGGER.error("Warning - No template engine found for template: {}", templateName);
         }
-        model.put("config", configModel);
+    }
+
+    /**
+     * The configuration with "." replaced by "_" in all keys, built once and shared until the configuration changes.
+     */
+    private Map<String, Object> getConfigModel() {
+        Map<String, Object> result = configModel;
+        if (result == null) {
+            result = new HashMap<String, Object>();
+            Iterator<String> configKeys = config.getKeys();
+            while (configKeys.hasNext()) {
+                String key = configKeys.next();
+                //replace "." in key so you can use dot notation in templates
+                result.put(key.replace(".", "_"), config.getProperty(key));
+            }
+            result = Collections.unmodifiableMap(result);
+            configModel = result;
+        }
+        return result;
+    }
+
+    /**
+     * Looks up the template file to use for the given template name, the file system is only checked once per name.
+     */
+    private String resolveTemplate(String templateName) {
+        String result = resolvedTemplates.get(templateName);
+        if (result == null) {
+            result = findTemplate(templateName);
+            resolvedTemplates.put(templateName, result);
+        }
+        return result;
+    }
+
+    private String findTemplate(String templateName) {
         // if default template exists we will use it
         File templateFile = new File(templatesPath, templateName);
         if (!templateFile.exists()) {
             LOGGER.info("Default template: {} was not found, searching for others...", templateName);
             // if default template does not exist then check if any alternative engine templates exist
-            String templateNameWithoutExt = templateName.substring(0, templateName.length() - 4);
+            int extensionIndex = templateName.lastIndexOf('.');
+            String templateNameWithoutExt = extensionIndex < 0 ? templateName : templateName.substring(0, extensionIndex);
             for (String extension : renderers.getRecognizedExtensions()) {
                 templateFile = new File(templatesPath, templateNameWithoutExt + "." + extension);
                 if (templateFile.exists()) {
                     LOGGER.info("Found alternative template file: {} using this instead", templateFile.getName());
-                    templateName = templateFile.getName();
-                    break;
+                    return templateFile.getName();
                 }
             }
         }
-        String ext = FileUtil.fileExt(templateName);
-        AbstractTemplateEngine engine = renderers.getEngine(ext);
-        if (engine != null) {
-            engine.renderDocument(model, templateName, writer);
-        } else {
-            LOGGER.error("Warning - No template engine found for template: {}", templateName);
+        return templateName;
+    }
+
+    /**
+     * Drops the cached <code>config</code> model whenever the configuration is modified.
+     *
+     * <p>
+     * Only weakly references the engine, so that a configuration outliving a bake does not keep its engine alive.
+     * </p>
+     */
+    private static class ConfigModelInvalidator implements ConfigurationListener {
+
+        private final CompositeConfiguration config;
+
+        private final WeakReference<DelegatingTemplateEngine> engine;
+
+        ConfigModelInvalidator(CompositeConfiguration config, DelegatingTemplateEngine engine) {
+            this.config = config;
+            this.engine = new WeakReference<DelegatingTemplateEngine>(engine);
+        }
+
+        @Override
+        public void configurationChanged(ConfigurationEvent event) {
+            if (event.isBeforeUpdate()) {
+                return;
+            }
+            DelegatingTemplateEngine current = engine.get();
+            if (current == null) {
+                config.removeConfigurationListener(this);
+            } else {
+                current.configModel = null;
+            }
         }
     }
 }
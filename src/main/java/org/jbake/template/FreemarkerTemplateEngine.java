@@ -3,6 +3,8 @@ package org.jbake.template;
 
 import freemarker.template.Configuration;
 import freemarker.template.DefaultObjectWrapper;
+import freemarker.template.DefaultObjectWrapperBuilder;
+import freemarker.template.ObjectWrapper;
 import freemarker.template.SimpleCollection;
 import freemarker.template.SimpleDate;
 import freemarker.template.SimpleHash;
@@ -49,14 +51,17 @@ public class FreemarkerTemplateEngine extends AbstractTemplateEngine {
         } catch (IOException e) {
             e.printStackTrace();
         }
-        templateCfg.setObjectWrapper(new DefaultObjectWrapper());
+        // adapters instead of copies, so that document attributes like the body are only loaded when used
+        DefaultObjectWrapperBuilder wrapper = new DefaultObjectWrapperBuilder(Configuration.VERSION_2_3_0);
+        wrapper.setUseAdaptersForContainers(true);
+        templateCfg.setObjectWrapper(wrapper.build());
     }
 
     @Override
     public void renderDocument(final Map<String, Object> model, final String templateName, final Writer writer) throws RenderingException {
         try {
             Template template = templateCfg.getTemplate(templateName);
-            template.process(new LazyLoadingModel(model, db), writer);
+            template.process(new LazyLoadingModel(model, db, templateCfg.getObjectWrapper()), writer);
         } catch (IOException e) {
             throw new RenderingException(e);
         } catch (TemplateException e) {
@@ -70,10 +75,16 @@ public class FreemarkerTemplateEngine extends AbstractTemplateEngine {
     public static class LazyLoadingModel implements TemplateHashModel {
         private final SimpleHash eagerModel;
         private final ContentStore db;
+        private final ObjectWrapper wrapper;
 
         public LazyLoadingModel(final Map<String, Object> eagerModel, final ContentStore db) {
-            this.eagerModel = new SimpleHash(eagerModel);
+            this(eagerModel, db, new DefaultObjectWrapper());
+        }
+
+        public LazyLoadingModel(final Map<String, Object> eagerModel, final ContentStore db, final ObjectWrapper wrapper) {
+            this.eagerModel = new SimpleHash(eagerModel, wrapper);
             this.db = db;
+            this.wrapper = wrapper;
         }
 
         @Override
@@ -84,12 +95,12 @@ public class FreemarkerTemplateEngine extends AbstractTemplateEngine {
 					@Override
 					public TemplateModel adapt(String key, Object extractedValue) {
 						if(key.equals(Crawler.Attributes.ALLTAGS)) {
-							return new SimpleCollection((Collection) extractedValue);
+							return new SimpleCollection((Collection) extractedValue, wrapper);
 						} else if(key.equals(Crawler.Attributes.PUBLISHED_DATE)) {
 							return new SimpleDate((Date) extractedValue, TemplateDateModel.UNKNOWN);
 						} else {
 							// All other cases, as far as I know, are document collections
-							return new SimpleSequence((Collection) extractedValue);
+							return new SimpleSequence((Collection) extractedValue, wrapper);
 						}
 										
 					}
@@ -45,7 +45,11 @@ public class GroovyMarkupTemplateEngine extends AbstractTemplateEngine {
     @Override
     public void renderDocument(final Map<String, Object> model, final String templateName, final Writer writer) throws RenderingException {
         try {
-            Template template = templateEngine.createTemplateByPath(templateName);
+            Template template;
+            synchronized (templateEngine) {
+                // compiling templates shares the engine's class loader
+                template = templateEngine.createTemplateByPath(templateName);
+            }
             Map<String, Object> wrappedModel = wrap(model);
             Writable writable = template.make(wrappedModel);
             writable.writeTo(writer);
@@ -23,6 +23,9 @@ import java.io.InputStreamReader;
 import java.io.Writer;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.jbake.app.ContentStore;
 
 /**
@@ -34,7 +37,7 @@ import org.jbake.app.ContentStore;
  */
 public class GroovyTemplateEngine extends AbstractTemplateEngine {
 
-    private final Map<String, Template> cachedTemplates = new HashMap<String, Template>();
+    private final ConcurrentMap<String, Template> cachedTemplates = new ConcurrentHashMap<String, Template>();
 
     public GroovyTemplateEngine(final CompositeConfiguration config, final ContentStore db, final File destination, final File templatesPath) {
         super(config, db, destination, templatesPath);
@@ -52,12 +55,16 @@ public class GroovyTemplateEngine extends AbstractTemplateEngine {
     }
 
     private Template findTemplate(final String templateName) throws SAXException, ParserConfigurationException, ClassNotFoundException, IOException {
-        TemplateEngine ste = templateName.endsWith(".gxml") ? new XmlTemplateEngine() : new SimpleTemplateEngine();
-        File sourceTemplate = new File(templatesPath, templateName);
         Template template = cachedTemplates.get(templateName);
         if (template == null) {
+            TemplateEngine ste = templateName.endsWith(".gxml") ? new XmlTemplateEngine() : new SimpleTemplateEngine();
+            File sourceTemplate = new File(templatesPath, templateName);
             template = ste.createTemplate(new InputStreamReader(new BufferedInputStream(new FileInputStream(sourceTemplate)), config.getString(Keys.TEMPLATE_ENCODING)));
-            cachedTemplates.put(templateName, template);
+            // another thread may have compiled the same template in the meantime, keep the first one
+            Template existing = cachedTemplates.putIfAbsent(templateName, template);
+            if (existing != null) {
+                template = existing;
+            }
         }
         return template;
     }
@@ -85,10 +85,19 @@ public class JadeTemplateEngine extends AbstractTemplateEngine {
     }
 
     public static class FormatHelper {
-        private Map<String, SimpleDateFormat> formatters = new HashMap<String, SimpleDateFormat>();
+        /**
+         * {@link SimpleDateFormat} is not thread-safe, so each rendering thread keeps its own formatters.
+         */
+        private final ThreadLocal<Map<String, SimpleDateFormat>> formatters = new ThreadLocal<Map<String, SimpleDateFormat>>() {
+            @Override
+            protected Map<String, SimpleDateFormat> initialValue() {
+                return new HashMap<String, SimpleDateFormat>();
+            }
+        };
 
         public String format(Date date, String pattern) {
             if(date!=null && pattern!=null) {
+                Map<String, SimpleDateFormat> formatters = this.formatters.get();
                 SimpleDateFormat df = formatters.get(pattern);
 
                 if(df==null) {
@@ -1,14 +1,20 @@
 package org.jbake.template;
 
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.jbake.app.ContentStore;
+import org.jbake.app.DocumentList;
 import org.jbake.model.DocumentTypeUtils;
 import org.jbake.template.model.PublishedCustomExtractor;
 import org.jbake.template.model.TypedDocumentsExtractor;
@@ -39,6 +45,15 @@ public class ModelExtractors {
 
     private final Map<String, ModelExtractor> extractors;
 
+    /**
+     * Results of {@link CacheableModelExtractor}s, computed from {@link #cachedStore} at {@link #cachedGeneration}.
+     */
+    private final ConcurrentMap<Object, Object> cache = new ConcurrentHashMap<Object, Object>();
+
+    private WeakReference<ContentStore> cachedStore;
+
+    private long cachedGeneration;
+
     private static class Loader {
         private static final ModelExtractors INSTANCE = new ModelExtractors();
     }
@@ -114,15 +129,72 @@ public class ModelExtractors {
         }
     }
 
+    /**
+     * Computes the value of a model key, values given in the model itself take precedence over extracted ones.
+     *
+     * @param db The content.
+     * @param key The model key.
+     * @param map The model given to the template engine.
+     * @param adapter Converts the value for the template engine.
+     * @return The adapted value.
+     * @throws NoModelExtractorException If no extractor is registered for the key.
+     */
     public <Type> Type extractAndTransform(ContentStore db, String key, Map map, TemplateEngineAdapter<Type> adapter) throws NoModelExtractorException {
         if (extractors.containsKey(key)) {
-            Object extractedValue = extractors.get(key).get(db, map, key);
+            if (map != null && map.containsKey(key)) {
+                return adapter.adapt(key, map.get(key));
+            }
+            Object extractedValue = extract(extractors.get(key), db, map, key);
             return adapter.adapt(key, extractedValue);
         } else {
             throw new NoModelExtractorException("no model extractor for key \"" + key + "\"");
         }
     }
 
+    /**
+     * Runs the given extractor, results of {@link CacheableModelExtractor}s are reused until the documents in the
+     * store change. Each caller gets its own copy of a cached collection, the documents in it are shared.
+     */
+    private Object extract(ModelExtractor extractor, ContentStore db, Map map, String key) {
+        if (!(extractor instanceof CacheableModelExtractor)) {
+            return extractor.get(db, map, key);
+        }
+        Object cacheKey = Arrays.asList(key, ((CacheableModelExtractor) extractor).getCacheKey(db, map, key));
+        validateCache(db);
+        Object result = cache.get(cacheKey);
+        if (result == null) {
+            result = extractor.get(db, map, key);
+            if (result == null) {
+                return null;
+            }
+            Object concurrent = cache.putIfAbsent(cacheKey, result);
+            if (concurrent != null) {
+                result = concurrent;
+            }
+        }
+        return copy(result);
+    }
+
+    private synchronized void validateCache(ContentStore db) {
+        long generation = db.getGeneration();
+        if (cachedStore == null || cachedStore.get() != db || cachedGeneration != generation) {
+            cache.clear();
+            cachedStore = new WeakReference<ContentStore>(db);
+            cachedGeneration = generation;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object copy(Object value) {
+        if (value instanceof DocumentList) {
+            return new DocumentList((DocumentList) value);
+        }
+        if (value instanceof Set) {
+            return new LinkedHashSet<Object>((Set<Object>) value);
+        }
+        return value;
+    }
+
     /**
      * @param key
      * @return
@@ -13,7 +13,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.configuration.CompositeConfiguration;
 import org.apache.commons.lang.LocaleUtils;
@@ -26,19 +25,18 @@ import org.jbake.model.DocumentTypes;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.context.IExpressionContext;
+import org.thymeleaf.context.LazyContextVariable;
 import org.thymeleaf.dialect.AbstractDialect;
 import org.thymeleaf.dialect.IDialect;
 import org.thymeleaf.dialect.IExpressionObjectDialect;
 import org.thymeleaf.expression.IExpressionObjectFactory;
 import org.thymeleaf.templateresolver.FileTemplateResolver;
 
-import com.orientechnologies.orient.core.record.impl.ODocument;
-
 /**
  * <p>A template engine which renders pages using Thymeleaf.</p>
  *
- * <p>This template engine is not recommended for large sites because the whole model
- * is loaded into memory due to Thymeleaf internal limitations.</p>
+ * <p>The values of the model extractors are passed to Thymeleaf as lazy context variables,
+ * so only the parts of the model a template actually uses are queried.</p>
  *
  * <p>The default rendering mode is "HTML", but it is possible to use another mode
  * for each document type, by adding a key in the configuration, for example:</p>
@@ -50,28 +48,36 @@ import com.orientechnologies.orient.core.record.impl.ODocument;
  * @author Cédric Champeau
  */
 public class ThymeleafTemplateEngine extends AbstractTemplateEngine {
-    private final ReentrantLock lock = new ReentrantLock();
-
-    private TemplateEngine templateEngine;
-    private FileTemplateResolver templateResolver;
+    /**
+     * The suffixes tried for template names without extension, in this order.
+     */
+    public static final String[] SUFFIXES = {".thyme", ".html"};
 
-	private String templateMode;
+    /**
+     * One {@link TemplateEngine} per template mode, engines are thread-safe once configured.
+     */
+    private final Map<String, TemplateEngine> templateEngines = new HashMap<String, TemplateEngine>();
 
     public ThymeleafTemplateEngine(final CompositeConfiguration config, final ContentStore db, final File destination, final File templatesPath) {
         super(config, db, destination, templatesPath);
     }
 
-    private void initializeTemplateEngine(String mode) {
-    	if (mode.equals(templateMode)) {
-    		return;
-    	}
-        templateMode = mode;
-        templateResolver = new FileTemplateResolver();
-        templateResolver.setPrefix(templatesPath.getAbsolutePath() + File.separatorChar);
-        templateResolver.setCharacterEncoding(config.getString(Keys.TEMPLATE_ENCODING));
-        templateResolver.setTemplateMode(mode);
-        templateEngine = new TemplateEngine();
-        templateEngine.setTemplateResolver(templateResolver);
+    private synchronized TemplateEngine getTemplateEngine(String mode) {
+        TemplateEngine templateEngine = templateEngines.get(mode);
+        if (templateEngine == null) {
+            templateEngine = createTemplateEngine(mode);
+            templateEngines.put(mode, templateEngine);
+        }
+        return templateEngine;
+    }
+
+    private TemplateEngine createTemplateEngine(String mode) {
+        TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.addTemplateResolver(createTemplateResolver(mode, null, 0));
+        // names without extension, as in th:replace="header :: head", refer to a file with one of the suffixes
+        for (int n = 0; n < SUFFIXES.length; n++) {
+            templateEngine.addTemplateResolver(createTemplateResolver(mode, SUFFIXES[n], n + 1));
+        }
         try {
             IDialect condCommentDialect = (IDialect) Class.forName("org.thymeleaf.extras.conditionalcomments.dialect.ConditionalCommentsDialect").newInstance();
             templateEngine.addDialect(condCommentDialect);
@@ -79,31 +85,37 @@ public class ThymeleafTemplateEngine extends AbstractTemplateEngine {
             // Sad, but true and not a real problem
         }
         templateEngine.addDialect(new DocumentsDialect());
+        return templateEngine;
+    }
+
+    private FileTemplateResolver createTemplateResolver(String mode, String suffix, int order) {
+        FileTemplateResolver templateResolver = new FileTemplateResolver();
+        templateResolver.setPrefix(templatesPath.getAbsolutePath() + File.separatorChar);
+        templateResolver.setSuffix(suffix);
+        templateResolver.setCharacterEncoding(config.getString(Keys.TEMPLATE_ENCODING));
+        templateResolver.setTemplateMode(mode);
+        templateResolver.setOrder(order);
+        templateResolver.setCheckExistence(true);
+        return templateResolver;
     }
 
     @Override
     public void renderDocument(final Map<String, Object> model, final String templateName, final Writer writer) throws RenderingException {
         Locale locale = locale();
         Context context = new Context(locale, wrap(model));
-        lock.lock();
-        try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> config = (Map<String, Object>) model.get("config");
-            @SuppressWarnings("unchecked")
-            Map<String, Object> content = (Map<String, Object>) model.get("content");
-            String mode = "HTML";
-            if (config != null && content != null) {
-                String key = "template_" + content.get(Attributes.TYPE) + "_thymeleaf_mode";
-                String configMode = (String) config.get(key);
-                if (configMode != null) {
-                    mode = configMode;
-                }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> config = (Map<String, Object>) model.get("config");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> content = (Map<String, Object>) model.get("content");
+        String mode = "HTML";
+        if (config != null && content != null) {
+            String key = "template_" + content.get(Attributes.TYPE) + "_thymeleaf_mode";
+            String configMode = (String) config.get(key);
+            if (configMode != null) {
+                mode = configMode;
             }
-            initializeTemplateEngine(mode);
-            templateEngine.process(templateName, context, writer);
-        } finally {
-            lock.unlock();
         }
+        getTemplateEngine(mode).process(templateName, context, writer);
     }
 
 	Locale locale() {
@@ -111,27 +123,62 @@ public class ThymeleafTemplateEngine extends AbstractTemplateEngine {
         return localeString != null ? LocaleUtils.toLocale(localeString) : Locale.getDefault();
 	}
 
+    /**
+     * Adds the values of all model extractors to the model. The values are only computed when a template uses them.
+     */
     private Map<String, Object> wrap(final Map<String, Object> model) {
         HashMap<String, Object> result = new HashMap<String, Object>(model);
-        for(String key : extractors.keySet()) {
-        	try {
-				result.put(key, extractors.extractAndTransform(db, key, model, new TemplateEngineAdapter.NoopAdapter()));
-			} catch (NoModelExtractorException e) {
-				// should never happen, as we iterate over existing extractors
-			}
+        for (final String key : extractors.keySet()) {
+            if (model.containsKey(key)) {
+                // given values take precedence
+                continue;
+            }
+            result.put(key, new LazyContextVariable<Object>() {
+                @Override
+                protected Object loadValue() {
+                    try {
+                        return extractors.extractAndTransform(db, key, model, new TemplateEngineAdapter.NoopAdapter());
+                    } catch (NoModelExtractorException e) {
+                        // should never happen, as we iterate over existing extractors
+                        return null;
+                    }
+                }
+            });
         }
         result.put("db", db);
-        result.put("alltags", getAllTags());
-        result.put("tag_posts", getTagPosts(result.get("tag")));
+        result.put("alltags", new LazyContextVariable<Object>() {
+            @Override
+            protected Object loadValue() {
+                return getAllTags();
+            }
+        });
+        result.put("tag_posts", new LazyContextVariable<Object>() {
+            @Override
+            protected Object loadValue() {
+                return getTagPosts(model.get("tag"));
+            }
+        });
         result.put("published_date", new Date());
         String[] documentTypes = DocumentTypes.getDocumentTypes();
-        for (String docType : documentTypes) {
-        	result.put(docType + "s", db.getAllContent(docType));
-        	result.put("published_" + docType + "s", db.getPublishedContent(docType));
+        for (final String docType : documentTypes) {
+            if (!extractors.containsKey(docType + "s")) {
+                result.put(docType + "s", new LazyContextVariable<Object>() {
+                    @Override
+                    protected Object loadValue() {
+                        return db.getAllContent(docType);
+                    }
+                });
+            }
+            if (!extractors.containsKey("published_" + docType + "s")) {
+                result.put("published_" + docType + "s", new LazyContextVariable<Object>() {
+                    @Override
+                    protected Object loadValue() {
+                        return db.getPublishedContent(docType);
+                    }
+                });
+            }
         }
-        result.put("published_content", getPublishedContent());
-        result.put("all_content", getAllContent());
-		return result;
+        return result;
     }
 
     private Object getTagPosts(Object tagName) {
@@ -146,33 +193,7 @@ public class ThymeleafTemplateEngine extends AbstractTemplateEngine {
     }
 
     private Object getAllTags() {
-    	DocumentList query = db.getAllTagsFromPublishedPosts();
-        Set<String> result = new HashSet<String>();
-        for (Map<String, Object> document : query) {
-            String[] tags = DBUtil.toStringArray(document.get(Attributes.TAGS));
-            Collections.addAll(result, tags);
-        }
-        return result;
-    }
-    
-    private Object getPublishedContent() {
-    	List<Map<String, Object>> publishedContent = new ArrayList<Map<String, Object>>();
-    	String[] documentTypes = DocumentTypes.getDocumentTypes();
-    	for (String docType : documentTypes) {
-    		List<Map<String, Object>> query = db.getPublishedContent(docType);
-    		publishedContent.addAll(query);
-    	}
-    	return publishedContent;
-    }
-    
-    private Object getAllContent() {
-    	List<Map<String, Object>> allContent = new ArrayList<Map<String, Object>>();
-    	String[] documentTypes = DocumentTypes.getDocumentTypes();
-    	for (String docType : documentTypes) {
-    		List<Map<String, Object>> query = db.getAllContent(docType);
-    		allContent.addAll(query);
-    	}
-    	return allContent;
+        return db.getTags();
     }
 
     /**
@@ -209,18 +230,38 @@ public class ThymeleafTemplateEngine extends AbstractTemplateEngine {
 		}
 
     	/**
-    	 * Utility functions for sorting documents.
+    	 * Utility functions for retrieving and sorting documents.
     	 */
     	public class DocumentsUtility {
     		
     		/**
-    		 * Delegates a generic sql query to the {@link ContentStore}.
+    		 * The published documents of the given type, newest first.
+    		 * 
+    		 * @param docType The document type.
+    		 * @return The documents from the {@link ContentStore}.
+    		 */
+    		public List<Map<String,Object>> published(String docType) {
+    			return db.getPublishedContent(docType);
+    		}
+    		
+    		/**
+    		 * All documents of the given type, newest first.
+    		 * 
+    		 * @param docType The document type.
+    		 * @return The documents from the {@link ContentStore}.
+    		 */
+    		public List<Map<String,Object>> all(String docType) {
+    			return db.getAllContent(docType);
+    		}
+    		
+    		/**
+    		 * The published posts with the given tag, newest first.
     		 * 
-    		 * @param sql The query.
-    		 * @return The query result.
+    		 * @param tag The tag.
+    		 * @return The posts from the {@link ContentStore}.
     		 */
-    		public List<Map<String,Object>> query(String sql) {
-    			return db.query(sql);
+    		public List<Map<String,Object>> tagged(String tag) {
+    			return db.getPublishedPostsByTag(tag);
     		}
     		
 			/**
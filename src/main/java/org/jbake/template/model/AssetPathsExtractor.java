@@ -0,0 +1,45 @@
+package org.jbake.template.model;
+
+import org.jbake.app.Asset;
+import org.jbake.app.ContentStore;
+import org.jbake.template.ModelExtractor;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The paths of the copied assets by their path in the assets folder, e.g.
+ * <code>asset_paths["css/style.css"]</code> is <code>css/style.&lt;hash&gt;.css</code> if fingerprinting is enabled
+ * and <code>css/style.css</code> otherwise.
+ *
+ * <p>
+ * The map only supports lookups, which are answered from the {@link ContentStore}.
+ * </p>
+ *
+ * @see Asset#fingerprintedPath(ContentStore, String)
+ */
+public class AssetPathsExtractor implements ModelExtractor<Map<String, String>> {
+
+    @Override
+    public Map<String, String> get(final ContentStore db, Map model, String key) {
+        return new AbstractMap<String, String>() {
+            @Override
+            public String get(Object path) {
+                return path instanceof String ? Asset.fingerprintedPath(db, (String) path) : null;
+            }
+
+            @Override
+            public boolean containsKey(Object path) {
+                return path instanceof String;
+            }
+
+            @Override
+            public Set<Entry<String, String>> entrySet() {
+                return Collections.emptySet();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,19 @@
+package org.jbake.template.model;
+
+import org.jbake.app.ContentStore;
+import org.jbake.app.DocumentList;
+import org.jbake.template.CacheableModelExtractor;
+
+import java.util.Map;
+
+/**
+ * Base class for extractors of document lists, which only depend on the documents in the {@link ContentStore}.
+ */
+public abstract class DocumentsExtractor implements CacheableModelExtractor<DocumentList> {
+
+    @Override
+    public Object getCacheKey(ContentStore db, Map model, String key) {
+        return null;
+    }
+
+}
@@ -0,0 +1,56 @@
+package org.jbake.template.model;
+
+import org.jbake.app.Asset;
+import org.jbake.app.ContentStore;
+import org.jbake.template.ModelExtractor;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The generated variants of image assets by their path in the assets folder:
+ * <ul>
+ * <li><code>image_srcset["img/photo.jpg"]</code> is a <code>srcset</code> like
+ * <code>img/photo-320w.jpg 320w, img/photo.jpg 800w</code>,</li>
+ * <li><code>image_thumbnails["img/photo.jpg"]</code> is the path of the thumbnail <code>img/photo-thumb.jpg</code>.</li>
+ * </ul>
+ * Images without variants resolve to the path of their copy.
+ *
+ * <p>
+ * The maps only support lookups, which are answered from the {@link ContentStore}.
+ * </p>
+ *
+ * @see Asset#srcset(ContentStore, String)
+ * @see Asset#thumbnailPath(ContentStore, String)
+ */
+public class ImageVariantsExtractor implements ModelExtractor<Map<String, String>> {
+
+    private static final String THUMBNAILS = "image_thumbnails";
+
+    @Override
+    public Map<String, String> get(final ContentStore db, Map model, String key) {
+        final boolean thumbnails = THUMBNAILS.equals(key);
+        return new AbstractMap<String, String>() {
+            @Override
+            public String get(Object path) {
+                if (!(path instanceof String)) {
+                    return null;
+                }
+                return thumbnails ? Asset.thumbnailPath(db, (String) path) : Asset.srcset(db, (String) path);
+            }
+
+            @Override
+            public boolean containsKey(Object path) {
+                return path instanceof String;
+            }
+
+            @Override
+            public Set<Entry<String, String>> entrySet() {
+                return Collections.emptySet();
+            }
+        };
+    }
+
+}
@@ -2,11 +2,10 @@ package org.jbake.template.model;
 
 import org.jbake.app.ContentStore;
 import org.jbake.app.DocumentList;
-import org.jbake.template.ModelExtractor;
 
 import java.util.Map;
 
-public class PublishedCustomExtractor implements ModelExtractor<DocumentList> {
+public class PublishedCustomExtractor extends DocumentsExtractor {
 
     String customDocumentType;
 
@@ -2,11 +2,10 @@ package org.jbake.template.model;
 
 import org.jbake.app.ContentStore;
 import org.jbake.app.DocumentList;
-import org.jbake.template.ModelExtractor;
 
 import java.util.Map;
 
-public class PublishedPostsExtractor implements ModelExtractor<DocumentList> {
+public class PublishedPostsExtractor extends DocumentsExtractor {
 
     @Override
     public DocumentList get(ContentStore db, Map model, String key) {
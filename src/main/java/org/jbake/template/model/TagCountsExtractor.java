@@ -0,0 +1,23 @@
+package org.jbake.template.model;
+
+import org.jbake.app.ContentStore;
+import org.jbake.template.CacheableModelExtractor;
+
+import java.util.Map;
+
+/**
+ * The number of published posts of each tag, e.g. for a tag cloud.
+ */
+public class TagCountsExtractor implements CacheableModelExtractor<Map<String, Integer>> {
+
+    @Override
+    public Map<String, Integer> get(ContentStore db, Map model, String key) {
+        return db.getTagIndex().getCounts();
+    }
+
+    @Override
+    public Object getCacheKey(ContentStore db, Map model, String key) {
+        return null;
+    }
+
+}
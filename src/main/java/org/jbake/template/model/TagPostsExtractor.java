@@ -3,20 +3,28 @@ package org.jbake.template.model;
 import org.jbake.app.ContentStore;
 import org.jbake.app.Crawler;
 import org.jbake.app.DocumentList;
-import org.jbake.template.ModelExtractor;
+import org.jbake.template.CacheableModelExtractor;
 
 import java.util.Map;
 
-public class TagPostsExtractor implements ModelExtractor<DocumentList> {
+public class TagPostsExtractor implements CacheableModelExtractor<DocumentList> {
 
     @Override
     public DocumentList get(ContentStore db, Map model, String key) {
-        String tag = null;
+        // fetch the tag posts from db
+        return db.getPublishedPostsByTag(tag(model));
+    }
+
+    @Override
+    public Object getCacheKey(ContentStore db, Map model, String key) {
+        return tag(model);
+    }
+
+    private static String tag(Map model) {
         if (model.get(Crawler.Attributes.TAG) != null) {
-            tag = model.get(Crawler.Attributes.TAG).toString();
+            return model.get(Crawler.Attributes.TAG).toString();
         }
-        // fetch the tag posts from db
-        return db.getPublishedPostsByTag(tag);
+        return null;
     }
 
 }
\ No newline at end of file
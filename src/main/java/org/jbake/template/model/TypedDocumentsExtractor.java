@@ -3,11 +3,10 @@ package org.jbake.template.model;
 import org.jbake.app.ContentStore;
 import org.jbake.app.DocumentList;
 import org.jbake.model.DocumentTypeUtils;
-import org.jbake.template.ModelExtractor;
 
 import java.util.Map;
 
-public class TypedDocumentsExtractor implements ModelExtractor<DocumentList> {
+public class TypedDocumentsExtractor extends DocumentsExtractor {
 
     @Override
     public DocumentList get(ContentStore db, Map model, String key) {
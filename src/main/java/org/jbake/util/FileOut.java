@@ -19,6 +19,8 @@ public class FileOut implements Out {
 
 	private final File path;
 	private final Charset encoding;
+	private final OutputTracker tracker;
+	private final String source;
 	
 	/**
 	 * Creates a {@link FileOut}.
@@ -27,12 +29,30 @@ public class FileOut implements Out {
 	 * @param encoding The encoding to use for writing.
 	 */
 	public FileOut(File path, Charset encoding) {
+		this(path, encoding, null, null);
+	}
+
+	/**
+	 * Creates a {@link FileOut} writing through an {@link OutputTracker}.
+	 *
+	 * @param path The {@link File} to write to.
+	 * @param encoding The encoding to use for writing.
+	 * @param tracker The {@link OutputTracker} deciding whether the file is actually written, <code>null</code> to
+	 *        always write the file.
+	 * @param source The source of the file recorded in the {@link OutputManifest}, may be <code>null</code>.
+	 */
+	public FileOut(File path, Charset encoding, OutputTracker tracker, String source) {
 		this.path = path;
 		this.encoding = encoding;
+		this.tracker = tracker;
+		this.source = source;
 	}
 
 	@Override
 	public Writer getWriter() throws IOException {
+		if (tracker != null) {
+			return tracker.createWriter(path, encoding, source);
+		}
 		return FileOut.createWriter(path, encoding);
 	}
 
@@ -0,0 +1,115 @@
+package org.jbake.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.configuration.Configuration;
+import org.jbake.app.ConfigUtil.Keys;
+
+/**
+ * Settings for the precompressed <code>.gz</code> siblings written next to output files.
+ *
+ * @see OutputTracker#setCompression(GzipCompression)
+ */
+public class GzipCompression {
+
+	/**
+	 * Extension of the compressed siblings.
+	 */
+	public static final String SUFFIX = ".gz";
+
+	private final Set<String> extensions;
+
+	private final int level;
+
+	private final int minSize;
+
+	/**
+	 * Creates a {@link GzipCompression}.
+	 *
+	 * @param extensions
+	 *        The extensions of the files to compress, without dot.
+	 * @param level
+	 *        The compression level from 1 (fastest) to 9 (smallest).
+	 * @param minSize
+	 *        The minimum size of files to compress, smaller files gain nothing by compression.
+	 */
+	public GzipCompression(Set<String> extensions, int level, int minSize) {
+		this.extensions = extensions;
+		this.level = level;
+		this.minSize = minSize;
+	}
+
+	/**
+	 * Creates the {@link GzipCompression} configured by {@link Keys#OUTPUT_GZIP}.
+	 *
+	 * @return The compression settings, or <code>null</code> if no files are compressed.
+	 */
+	public static GzipCompression fromConfig(Configuration config) {
+		Set<String> extensions = new HashSet<String>();
+		for (String extension : config.getStringArray(Keys.OUTPUT_GZIP)) {
+			extension = extension.trim();
+			if (extension.startsWith(".")) {
+				extension = extension.substring(1);
+			}
+			if (!extension.isEmpty()) {
+				extensions.add(extension.toLowerCase());
+			}
+		}
+		if (extensions.isEmpty()) {
+			return null;
+		}
+		return new GzipCompression(extensions, config.getInt(Keys.OUTPUT_GZIP_LEVEL, Deflater.BEST_COMPRESSION),
+				config.getInt(Keys.OUTPUT_GZIP_MIN_SIZE, 1024));
+	}
+
+	/**
+	 * Whether a compressed sibling is kept for the given file.
+	 */
+	public boolean appliesTo(File file) {
+		String name = file.getName();
+		int dot = name.lastIndexOf('.');
+		return dot >= 0 && extensions.contains(name.substring(dot + 1).toLowerCase());
+	}
+
+	/**
+	 * Whether content of the given size is compressed.
+	 */
+	public boolean compresses(long size) {
+		return size >= minSize;
+	}
+
+	/**
+	 * Compresses the given bytes.
+	 *
+	 * @return The gzip compressed bytes, which only depend on the given content and the level.
+	 */
+	public byte[] compress(byte[] content) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(content.length / 3 + 64);
+		OutputStream out = new GZIPOutputStream(buffer) {
+			{
+				def.setLevel(level);
+			}
+		};
+		try {
+			out.write(content);
+		} finally {
+			out.close();
+		}
+		return buffer.toByteArray();
+	}
+
+	/**
+	 * The compressed sibling of the given file.
+	 */
+	public static File compressedFile(File file) {
+		return new File(file.getPath() + SUFFIX);
+	}
+
+}
@@ -0,0 +1,281 @@
+package org.jbake.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jbake.app.HashUtil;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+
+/**
+ * Lists all output files of a bake with their size, modification time, content hash, source and status compared with
+ * the previous bake.
+ *
+ * <p>
+ * The manifest is written as one JSON object per line, sorted by path:
+ * </p>
+ *
+ * <pre>
+ * {"path":"blog/2013/first-post.html","size":4711,"lastModified":1500000000000,"sha1":"...","source":"content/blog/2013/first-post.md","status":"changed"}
+ * </pre>
+ *
+ * <p>
+ * The <code>path</code> is relative to the destination folder. The <code>source</code> is the path of the source file
+ * of a rendered document or asset relative to the project folder, or <code>tool:&lt;type&gt;</code> for files written
+ * by a {@link org.jbake.render.RenderingTool}. Files written during the bake are recorded by the
+ * {@link OutputTracker}, all other files of the previous manifest are taken over as <code>deleted</code> if they no
+ * longer exist. The others are <code>unchanged</code> if their size and modification time still match the previous
+ * manifest, or if their content hash does. Deleted files are listed once.
+ * </p>
+ */
+public class OutputManifest {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final String TOOL_PREFIX = "tool:";
+
+	/**
+	 * The status of an output file compared with the previous bake.
+	 */
+	public enum Status {
+		ADDED, CHANGED, UNCHANGED, DELETED;
+
+		@Override
+		public String toString() {
+			return name().toLowerCase();
+		}
+	}
+
+	private static final class Entry {
+		final long size;
+		final long lastModified;
+		final String sha1;
+		final String source;
+		final Status status;
+
+		Entry(long size, long lastModified, String sha1, String source, Status status) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.sha1 = sha1;
+			this.source = source;
+			this.status = status;
+		}
+	}
+
+	private final File root;
+
+	private final File sourceRoot;
+
+	private final Map<String, Entry> previous;
+
+	private final ConcurrentMap<String, Entry> current = new ConcurrentHashMap<String, Entry>();
+
+	private OutputManifest(File root, File sourceRoot, Map<String, Entry> previous) {
+		this.root = root;
+		this.sourceRoot = sourceRoot;
+		this.previous = previous;
+	}
+
+	/**
+	 * Starts a new manifest without a previous bake.
+	 *
+	 * @param root
+	 *        The destination folder.
+	 * @param sourceRoot
+	 *        The project folder.
+	 */
+	public static OutputManifest create(File root, File sourceRoot) {
+		return new OutputManifest(root, sourceRoot, new HashMap<String, Entry>());
+	}
+
+	/**
+	 * Starts a new manifest.
+	 *
+	 * @param manifestFile
+	 *        The manifest of the previous bake, need not exist.
+	 * @param root
+	 *        The destination folder.
+	 * @param sourceRoot
+	 *        The project folder.
+	 * @throws IOException
+	 *         If reading the previous manifest fails.
+	 */
+	public static OutputManifest load(File manifestFile, File root, File sourceRoot) throws IOException {
+		Map<String, Entry> previous = new HashMap<String, Entry>();
+		if (manifestFile.isFile()) {
+			BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(manifestFile), UTF8));
+			try {
+				String line;
+				while ((line = in.readLine()) != null) {
+					if (line.trim().isEmpty()) {
+						continue;
+					}
+					Object value = JSONValue.parse(line);
+					if (!(value instanceof JSONObject)) {
+						throw new IOException("Invalid manifest entry in '" + manifestFile + "': " + line);
+					}
+					JSONObject json = (JSONObject) value;
+					Status status = Status.valueOf(String.valueOf(json.get("status")).toUpperCase());
+					Number size = (Number) json.get("size");
+					// missing in manifests of older versions, the file is hashed once
+					Number lastModified = (Number) json.get("lastModified");
+					previous.put((String) json.get("path"), new Entry(size == null ? 0 : size.longValue(),
+							lastModified == null ? 0 : lastModified.longValue(), (String) json.get("sha1"),
+							(String) json.get("source"), status));
+				}
+			} catch (IllegalArgumentException ex) {
+				throw new IOException("Invalid manifest '" + manifestFile + "'.", ex);
+			} catch (ClassCastException ex) {
+				throw new IOException("Invalid manifest '" + manifestFile + "'.", ex);
+			} finally {
+				in.close();
+			}
+		}
+		return new OutputManifest(root, sourceRoot, previous);
+	}
+
+	/**
+	 * The source recorded for files written by a {@link org.jbake.render.RenderingTool}.
+	 *
+	 * @param templateType
+	 *        The template type of the tool.
+	 */
+	public static String toolSource(String templateType) {
+		return TOOL_PREFIX + templateType;
+	}
+
+	/**
+	 * The output files of the previous bake written from the sources in the given folder.
+	 *
+	 * @param sourceFolder
+	 *        A folder within the project folder.
+	 * @return The paths of the files relative to the destination folder, files already deleted by the previous bake
+	 *         are not included.
+	 */
+	public Set<String> getPreviousOutputs(File sourceFolder) {
+		String prefix = relativePath(sourceRoot, sourceFolder) + '/';
+		Set<String> result = new HashSet<String>();
+		for (Map.Entry<String, Entry> before : previous.entrySet()) {
+			Entry entry = before.getValue();
+			if (entry.status != Status.DELETED && entry.source != null && entry.source.startsWith(prefix)) {
+				result.add(before.getKey());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Records a file written or checked during the current bake, after it has been written.
+	 *
+	 * @param file
+	 *        The output file.
+	 * @param size
+	 *        The size of the file.
+	 * @param sha1
+	 *        The hash of the file contents.
+	 * @param source
+	 *        The path of the source file, a {@link #toolSource(String) tool source}, or <code>null</code>.
+	 */
+	public void record(File file, long size, String sha1, String source) {
+		String path = relativePath(root, file);
+		Entry before = previous.get(path);
+		Status status;
+		if (before == null || before.status == Status.DELETED) {
+			status = Status.ADDED;
+		} else if (sha1.equals(before.sha1)) {
+			status = Status.UNCHANGED;
+		} else {
+			status = Status.CHANGED;
+		}
+		if (source == null) {
+			source = before == null ? null : before.source;
+		} else if (!source.startsWith(TOOL_PREFIX)) {
+			source = relativePath(sourceRoot, new File(source));
+		}
+		current.put(path, new Entry(size, file.lastModified(), sha1, source, status));
+	}
+
+	/**
+	 * Writes the manifest of the current bake.
+	 *
+	 * @param manifestFile
+	 *        The file to write to.
+	 * @return The number of files of each {@link Status}.
+	 * @throws IOException
+	 *         If writing fails.
+	 */
+	public Map<Status, Integer> write(File manifestFile) throws IOException {
+		Map<String, Entry> entries = new TreeMap<String, Entry>(current);
+		for (Map.Entry<String, Entry> before : previous.entrySet()) {
+			String path = before.getKey();
+			Entry entry = before.getValue();
+			if (entries.containsKey(path) || entry.status == Status.DELETED) {
+				continue;
+			}
+			File file = new File(root, path);
+			if (!file.isFile()) {
+				entries.put(path, new Entry(entry.size, entry.lastModified, entry.sha1, entry.source, Status.DELETED));
+			} else if (file.length() == entry.size && file.lastModified() == entry.lastModified) {
+				entries.put(path, new Entry(entry.size, entry.lastModified, entry.sha1, entry.source, Status.UNCHANGED));
+			} else {
+				// touched outside of the bake
+				String sha1 = HashUtil.sha1(file);
+				Status status = sha1.equals(entry.sha1) ? Status.UNCHANGED : Status.CHANGED;
+				entries.put(path, new Entry(file.length(), file.lastModified(), sha1, entry.source, status));
+			}
+		}
+
+		Map<Status, Integer> counts = new LinkedHashMap<Status, Integer>();
+		for (Status status : Status.values()) {
+			counts.put(status, 0);
+		}
+		manifestFile.getAbsoluteFile().getParentFile().mkdirs();
+		Writer out = new OutputStreamWriter(new FileOutputStream(manifestFile), UTF8);
+		try {
+			for (Map.Entry<String, Entry> mapping : entries.entrySet()) {
+				Entry entry = mapping.getValue();
+				Map<String, Object> json = new LinkedHashMap<String, Object>();
+				json.put("path", mapping.getKey());
+				json.put("size", entry.size);
+				json.put("lastModified", entry.lastModified);
+				json.put("sha1", entry.sha1);
+				if (entry.source != null) {
+					json.put("source", entry.source);
+				}
+				json.put("status", entry.status.toString());
+				JSONValue.writeJSONString(json, out);
+				out.write('\n');
+				counts.put(entry.status, counts.get(entry.status) + 1);
+			}
+		} finally {
+			out.close();
+		}
+		return Collections.unmodifiableMap(counts);
+	}
+
+	private static String relativePath(File root, File file) {
+		String rootPath = root.getAbsolutePath() + File.separator;
+		String path = file.getAbsolutePath();
+		if (path.startsWith(rootPath)) {
+			path = path.substring(rootPath.length());
+		}
+		return path.replace(File.separatorChar, '/');
+	}
+
+}
@@ -0,0 +1,268 @@
+package org.jbake.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jbake.app.HashUtil;
+
+/**
+ * Writes output files and counts the files written and the files left untouched.
+ * 
+ * <p>
+ * If unchanged files are skipped, a file is only written if its new content differs from the existing file. This
+ * keeps the modification time of unchanged files, so that tools synchronizing the output only transfer files that
+ * have actually changed.
+ * </p>
+ * 
+ * <p>
+ * If an {@link OutputManifest} is set, every file written or found unchanged is recorded in it. If a
+ * {@link GzipCompression} is set, a compressed sibling is written for every matching file that is written, compressed
+ * from the bytes in memory. A compressed sibling of a file written without compression is deleted, so that a server
+ * never prefers stale compressed content.
+ * </p>
+ */
+public class OutputTracker {
+
+	private final boolean skipUnchanged;
+
+	private final AtomicInteger written = new AtomicInteger();
+
+	private final AtomicInteger unchanged = new AtomicInteger();
+
+	private volatile OutputManifest manifest;
+
+	private volatile GzipCompression compression;
+
+	/**
+	 * Creates an {@link OutputTracker}.
+	 * 
+	 * @param skipUnchanged
+	 *        Whether files whose content does not change should be left untouched.
+	 */
+	public OutputTracker(boolean skipUnchanged) {
+		this.skipUnchanged = skipUnchanged;
+	}
+
+	/**
+	 * The number of files written.
+	 */
+	public int getWritten() {
+		return written.get();
+	}
+
+	/**
+	 * The number of files left untouched, because their content has not changed.
+	 */
+	public int getUnchanged() {
+		return unchanged.get();
+	}
+
+	/**
+	 * The {@link OutputManifest} recording the files, <code>null</code> if no manifest is written.
+	 */
+	public OutputManifest getManifest() {
+		return manifest;
+	}
+
+	/**
+	 * @see #getManifest()
+	 */
+	public void setManifest(OutputManifest manifest) {
+		this.manifest = manifest;
+	}
+
+	/**
+	 * The {@link GzipCompression} of the output files, <code>null</code> if no compressed files are written.
+	 */
+	public GzipCompression getCompression() {
+		return compression;
+	}
+
+	/**
+	 * @see #getCompression()
+	 */
+	public void setCompression(GzipCompression compression) {
+		this.compression = compression;
+	}
+
+	/**
+	 * Opens a {@link Writer} to the given file, the file is written when the {@link Writer} is closed.
+	 * 
+	 * @param file
+	 *        The {@link File} to write to.
+	 * @param encoding
+	 *        The encoding to use.
+	 */
+	public Writer createWriter(File file, Charset encoding) throws IOException {
+		return createWriter(file, encoding, null);
+	}
+
+	/**
+	 * Opens a {@link Writer} to the given file, the file is written when the {@link Writer} is closed.
+	 * 
+	 * @param file
+	 *        The {@link File} to write to.
+	 * @param encoding
+	 *        The encoding to use.
+	 * @param source
+	 *        The source of the file recorded in the {@link OutputManifest}, may be <code>null</code>.
+	 */
+	public Writer createWriter(final File file, final Charset encoding, final String source) throws IOException {
+		if (!skipUnchanged && manifest == null && compression == null) {
+			deleteCompressed(file);
+			written.incrementAndGet();
+			return FileOut.createWriter(file, encoding);
+		}
+		return new StringWriter() {
+			private boolean closed;
+
+			@Override
+			public void close() throws IOException {
+				if (closed) {
+					return;
+				}
+				closed = true;
+				super.close();
+				writeIfChanged(file, toString().getBytes(encoding), source);
+			}
+		};
+	}
+
+	/**
+	 * Copies a file.
+	 * 
+	 * @param source
+	 *        The file to copy.
+	 * @param destination
+	 *        The copy, which keeps the modification time of the source if written.
+	 * @param sourceName
+	 *        The source recorded in the {@link OutputManifest}, may be <code>null</code>.
+	 */
+	public void copy(File source, File destination, String sourceName) throws IOException {
+		boolean changed;
+		if (skipUnchanged && destination.isFile() && destination.length() == source.length()
+				&& FileUtils.contentEquals(source, destination)) {
+			unchanged.incrementAndGet();
+			changed = false;
+		} else {
+			FileUtils.copyFile(source, destination);
+			written.incrementAndGet();
+			changed = true;
+		}
+		OutputManifest recorder = manifest;
+		if (recorder != null) {
+			recorder.record(destination, destination.length(), HashUtil.sha1(destination), sourceName);
+		}
+		GzipCompression gzip = compression;
+		if (gzip != null && gzip.appliesTo(destination) && gzip.compresses(destination.length())) {
+			if (changed || !GzipCompression.compressedFile(destination).isFile()) {
+				writeCompressed(gzip, destination, FileUtils.readFileToByteArray(source), sourceName);
+			}
+		} else if (!GzipCompression.compressedFile(source).exists()) {
+			// unless the sibling is a copy of another source file
+			deleteCompressed(destination);
+		}
+	}
+
+	/**
+	 * Writes a file generated in memory.
+	 * 
+	 * @param file
+	 *        The {@link File} to write to.
+	 * @param content
+	 *        The content of the file.
+	 * @param source
+	 *        The source of the file recorded in the {@link OutputManifest}, may be <code>null</code>.
+	 */
+	public void write(File file, byte[] content, String source) throws IOException {
+		writeIfChanged(file, content, source);
+	}
+
+	/**
+	 * Deletes an output file together with its compressed sibling.
+	 * 
+	 * @param file
+	 *        The file to delete.
+	 * @return Whether the file has been deleted.
+	 */
+	public boolean delete(File file) {
+		deleteCompressed(file);
+		return file.delete();
+	}
+
+	private void writeIfChanged(File file, byte[] content, String source) throws IOException {
+		boolean changed = writeFile(file, content, source);
+		GzipCompression gzip = compression;
+		if (gzip != null && gzip.appliesTo(file) && gzip.compresses(content.length)) {
+			if (changed || !GzipCompression.compressedFile(file).isFile()) {
+				writeCompressed(gzip, file, content, source);
+			}
+		} else {
+			deleteCompressed(file);
+		}
+	}
+
+	/**
+	 * Writes the given content unless the file already has this content.
+	 * 
+	 * @return Whether the file has been written.
+	 */
+	private boolean writeFile(File file, byte[] content, String source) throws IOException {
+		boolean changed;
+		if (skipUnchanged && file.isFile() && file.length() == content.length && contentEquals(file, content)) {
+			unchanged.incrementAndGet();
+			changed = false;
+		} else {
+			file.getParentFile().mkdirs();
+			OutputStream out = new FileOutputStream(file);
+			try {
+				out.write(content);
+			} finally {
+				out.close();
+			}
+			written.incrementAndGet();
+			changed = true;
+		}
+		OutputManifest recorder = manifest;
+		if (recorder != null) {
+			recorder.record(file, content.length, HashUtil.sha1(content), source);
+		}
+		return changed;
+	}
+
+	/**
+	 * Removes the compressed sibling of a file that is no longer compressed, because compression has been disabled
+	 * for its type or the file has become too small.
+	 */
+	private static void deleteCompressed(File file) {
+		File compressed = GzipCompression.compressedFile(file);
+		if (compressed.exists()) {
+			compressed.delete();
+		}
+	}
+
+	private void writeCompressed(GzipCompression gzip, File file, byte[] content, String source) throws IOException {
+		writeFile(GzipCompression.compressedFile(file), gzip.compress(content), source);
+	}
+
+	private static boolean contentEquals(File file, byte[] content) throws IOException {
+		InputStream in = new FileInputStream(file);
+		try {
+			return Arrays.equals(IOUtils.toByteArray(in, content.length), content) && in.read() < 0;
+		} finally {
+			in.close();
+		}
+	}
+
+}
@@ -1,16 +1,21 @@
 package org.jbake.app;
 
 import org.apache.commons.configuration.CompositeConfiguration;
+import org.apache.commons.io.FileUtils;
 import org.jbake.app.ConfigUtil.Keys;
+import org.jbake.util.OutputManifest;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.net.URL;
 
+import javax.imageio.ImageIO;
+
 public class AssetTest {
 
 	private CompositeConfiguration config;
@@ -76,6 +81,226 @@ public class AssetTest {
 		Assert.assertTrue("Errors during asset copying", asset.getErrors().isEmpty());
 	}
 
+	@Test
+	public void copyParallel() throws Exception {
+		config.setProperty(Keys.ASSET_THREADS, 4);
+		URL assetsUrl = this.getClass().getResource("/assets");
+		File assets = new File(assetsUrl.getFile());
+		Asset asset = new Asset(assets.getParentFile(), folder.getRoot(), config);
+		asset.copy(assets);
+
+		File cssFile = new File(folder.getRoot(), "css/bootstrap.min.css");
+		Assert.assertTrue("File " + cssFile.getAbsolutePath() + " does not exist", cssFile.exists());
+		Assert.assertEquals(asset.getOutputTracker().getWritten(), FileUtils.listFiles(folder.getRoot(), null, true).size());
+		Assert.assertTrue("Errors during asset copying", asset.getErrors().isEmpty());
+	}
+
+	@Test
+	public void copyVerifyingContent() throws Exception {
+		config.setProperty(Keys.ASSET_VERIFY, "hash");
+		File source = folder.newFolder("source");
+		File destination = folder.newFolder("output");
+		File assets = new File(source, "assets");
+		File sourceFile = new File(assets, "style.css");
+		FileUtils.writeStringToFile(sourceFile, "body {}");
+		new Asset(source, destination, config).copy(assets);
+
+		// newer copies with different content are replaced, even if the source is older
+		File destFile = new File(destination, "style.css");
+		FileUtils.writeStringToFile(destFile, "p {}   ");
+		Assert.assertTrue(sourceFile.setLastModified(destFile.lastModified() - 10000));
+		Asset asset = new Asset(source, destination, config);
+		asset.copy(assets);
+		Assert.assertEquals("body {}", FileUtils.readFileToString(destFile));
+		Assert.assertEquals(1, asset.getOutputTracker().getWritten());
+
+		asset = new Asset(source, destination, config);
+		asset.copy(assets);
+		Assert.assertEquals(1, asset.getOutputTracker().getUnchanged());
+	}
+
+	@Test
+	public void pruneRemovedAssets() throws Exception {
+		ContentStore db = DBUtil.createDataStore("memory", "assets" + System.currentTimeMillis());
+		try {
+			config.setProperty(Keys.ASSET_PRUNE, true);
+			File source = folder.newFolder("source");
+			File destination = folder.newFolder("output");
+			File assets = new File(source, "assets");
+			File removed = new File(assets, "js/removed.js");
+			FileUtils.writeStringToFile(removed, "removed");
+			FileUtils.writeStringToFile(new File(assets, "js/kept.js"), "kept");
+			FileUtils.writeStringToFile(new File(destination, "index.html"), "rendered");
+			new Asset(source, destination, config, db).copy(assets);
+			Assert.assertTrue(new File(destination, "js/removed.js").exists());
+
+			// only copies of removed assets are deleted
+			Assert.assertTrue(removed.delete());
+			Asset asset = new Asset(source, destination, config, db);
+			asset.copy(assets);
+			Assert.assertFalse(new File(destination, "js/removed.js").exists());
+			Assert.assertTrue(new File(destination, "js/kept.js").exists());
+			Assert.assertTrue(new File(destination, "index.html").exists());
+			Assert.assertTrue("Errors during asset copying", asset.getErrors().isEmpty());
+		} finally {
+			db.drop();
+			db.close();
+		}
+	}
+
+	@Test
+	public void pruneAssetsCopiedBeforeTheStoreWasCreated() throws Exception {
+		config.setProperty(Keys.ASSET_PRUNE, true);
+		File source = folder.newFolder("source");
+		File destination = folder.newFolder("output");
+		File assets = new File(source, "assets");
+		File removed = new File(assets, "js/removed.js");
+		FileUtils.writeStringToFile(removed, "removed");
+		new Asset(source, destination, config, new MemoryContentStore()).copy(assets);
+
+		// the new store records the unchanged copy although it is not copied again
+		ContentStore db = new MemoryContentStore();
+		new Asset(source, destination, config, db).copy(assets);
+		Assert.assertTrue(removed.delete());
+		new Asset(source, destination, config, db).copy(assets);
+		Assert.assertFalse(new File(destination, "js/removed.js").exists());
+	}
+
+	@Test
+	public void pruneAssetsOfEarlierRunsListedInManifest() throws Exception {
+		config.setProperty(Keys.ASSET_PRUNE, true);
+		config.setProperty(Keys.OUTPUT_GZIP, "js");
+		config.setProperty(Keys.OUTPUT_GZIP_MIN_SIZE, 0);
+		File source = folder.newFolder("source");
+		File destination = folder.newFolder("output");
+		File manifestFile = new File(source, "manifest.ndjson");
+		File assets = new File(source, "assets");
+		File removed = new File(assets, "js/removed.js");
+		FileUtils.writeStringToFile(removed, "removed");
+		FileUtils.writeStringToFile(new File(assets, "js/kept.js"), "kept");
+		FileUtils.writeStringToFile(new File(destination, "index.html"), "rendered");
+		copy(source, destination, manifestFile, assets);
+		Assert.assertTrue(new File(destination, "js/removed.js.gz").exists());
+
+		// each run starts with an empty store
+		Assert.assertTrue(removed.delete());
+		copy(source, destination, manifestFile, assets);
+		Assert.assertFalse(new File(destination, "js/removed.js").exists());
+		Assert.assertFalse(new File(destination, "js/removed.js.gz").exists());
+		Assert.assertTrue(new File(destination, "js/kept.js").exists());
+		Assert.assertTrue(new File(destination, "js/kept.js.gz").exists());
+		Assert.assertTrue(new File(destination, "index.html").exists());
+	}
+
+	private void copy(File source, File destination, File manifestFile, File assets) throws Exception {
+		Asset asset = new Asset(source, destination, config, new MemoryContentStore());
+		asset.getOutputTracker().setManifest(OutputManifest.load(manifestFile, destination, source));
+		asset.copy(assets);
+		Assert.assertTrue("Errors during asset copying", asset.getErrors().isEmpty());
+		asset.getOutputTracker().getManifest().write(manifestFile);
+	}
+
+	@Test
+	public void copyWithFingerprints() throws Exception {
+		ContentStore db = DBUtil.createDataStore("memory", "assets" + System.currentTimeMillis());
+		try {
+			config.setProperty(Keys.ASSET_FINGERPRINT, true);
+			config.setProperty(Keys.ASSET_PRUNE, true);
+			File source = folder.newFolder("source");
+			File destination = folder.newFolder("output");
+			File assets = new File(source, "assets");
+			File sourceFile = new File(assets, "css/style.css");
+			FileUtils.writeStringToFile(sourceFile, "body {}");
+			Assert.assertEquals("css/style.css", Asset.fingerprintedPath(db, "css/style.css"));
+
+			Asset asset = new Asset(source, destination, config, db);
+			asset.copy(assets);
+			String path = "css/style." + HashUtil.sha1(sourceFile).substring(0, 10) + ".css";
+			Assert.assertTrue(new File(destination, path).exists());
+			Assert.assertFalse(new File(destination, "css/style.css").exists());
+			Assert.assertEquals(path, Asset.fingerprintedPath(db, "css/style.css"));
+			Assert.assertEquals("/" + path, Asset.fingerprintedPath(db, "/css/style.css"));
+			String signature = asset.getFingerprintSignature();
+
+			// unchanged assets keep their name
+			asset = new Asset(source, destination, config, db);
+			asset.copy(assets);
+			Assert.assertEquals(signature, asset.getFingerprintSignature());
+
+			// modified assets get a new name, the old copy is pruned
+			FileUtils.writeStringToFile(sourceFile, "body { margin: 0; }");
+			Assert.assertTrue(sourceFile.setLastModified(sourceFile.lastModified() + 10000));
+			asset = new Asset(source, destination, config, db);
+			asset.copy(assets);
+			Assert.assertNotEquals(signature, asset.getFingerprintSignature());
+			String newPath = Asset.fingerprintedPath(db, "css/style.css");
+			Assert.assertNotEquals(path, newPath);
+			Assert.assertEquals("body { margin: 0; }", FileUtils.readFileToString(new File(destination, newPath)));
+			Assert.assertFalse(new File(destination, path).exists());
+
+			// without fingerprints, the plain names are used
+			config.setProperty(Keys.ASSET_FINGERPRINT, false);
+			new Asset(source, destination, config, db).copy(assets);
+			Assert.assertEquals("css/style.css", Asset.fingerprintedPath(db, "css/style.css"));
+		} finally {
+			db.drop();
+			db.close();
+		}
+	}
+
+	@Test
+	public void copyWithImageVariants() throws Exception {
+		ContentStore db = DBUtil.createDataStore("memory", "assets" + System.currentTimeMillis());
+		try {
+			config.setProperty(Keys.ASSET_IMAGE_WIDTHS, "50,100,400");
+			config.setProperty(Keys.ASSET_IMAGE_THUMBNAIL, 20);
+			config.setProperty(Keys.ASSET_THREADS, 2);
+			File source = folder.newFolder("source");
+			File destination = folder.newFolder("output");
+			File assets = new File(source, "assets");
+			new File(assets, "img").mkdirs();
+			ImageIO.write(new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB), "png", new File(assets, "img/photo.png"));
+			FileUtils.writeStringToFile(new File(assets, "img/broken.jpg"), "no image");
+			// recognized as PNG, but ImageIO fails to read it
+			FileUtils.writeByteArrayToFile(new File(assets, "img/corrupt.png"),
+					new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n', 0, 0, 0, 13, 'I', 'H', 'D', 'R'});
+
+			Asset asset = new Asset(source, destination, config, db);
+			asset.copy(assets);
+			Assert.assertTrue(asset.getErrors().isEmpty());
+			Assert.assertEquals(50, ImageIO.read(new File(destination, "img/photo-50w.png")).getWidth());
+			Assert.assertEquals(50, ImageIO.read(new File(destination, "img/photo-100w.png")).getHeight());
+			Assert.assertFalse(new File(destination, "img/photo-400w.png").exists());
+			Assert.assertEquals(20, ImageIO.read(new File(destination, "img/photo-thumb.png")).getWidth());
+			Assert.assertEquals("img/photo-50w.png 50w, img/photo-100w.png 100w, img/photo.png 200w",
+					Asset.srcset(db, "img/photo.png"));
+			Assert.assertEquals("/img/photo-thumb.png", Asset.thumbnailPath(db, "/img/photo.png"));
+			Assert.assertEquals("img/broken.jpg", Asset.srcset(db, "img/broken.jpg"));
+			Assert.assertTrue(new File(destination, "img/corrupt.png").exists());
+			Assert.assertEquals("img/corrupt.png", Asset.srcset(db, "img/corrupt.png"));
+			String signature = asset.getVariantSignature();
+
+			// unchanged images are not scaled again
+			File variant = new File(destination, "img/photo-50w.png");
+			Assert.assertTrue(variant.setLastModified(10000));
+			asset = new Asset(source, destination, config, db);
+			asset.copy(assets);
+			Assert.assertEquals(10000, variant.lastModified());
+			Assert.assertEquals(signature, asset.getVariantSignature());
+
+			// variants no longer configured are pruned
+			config.setProperty(Keys.ASSET_IMAGE_WIDTHS, "100");
+			asset = new Asset(source, destination, config, db);
+			asset.copy(assets);
+			Assert.assertNotEquals(signature, asset.getVariantSignature());
+			Assert.assertFalse(variant.exists());
+			Assert.assertTrue(new File(destination, "img/photo-100w.png").exists());
+		} finally {
+			db.drop();
+			db.close();
+		}
+	}
+
 	/**
 	 * Primary intention is to extend test cases to increase coverage.
 	 *
@@ -7,10 +7,15 @@ import org.apache.commons.io.FilenameUtils;
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
 import org.jbake.app.ConfigUtil.Keys;
+import org.jbake.model.DocumentTypes;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 
 import java.io.File;
 import java.net.URL;
@@ -20,7 +25,20 @@ import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+@RunWith(Parameterized.class)
 public class CrawlerTest {
+
+    /**
+     * Runs all tests against the OrientDB and the in-memory content store.
+     */
+    @Parameters(name = "{0}")
+    public static Object[] storeTypes() {
+        return new Object[] {"memory", DBUtil.JAVA_STORE};
+    }
+
+    @Parameter
+    public String storeType;
+
     private CompositeConfiguration config;
     private ContentStore db;
     private File sourceFolder;
@@ -36,7 +54,12 @@ public class CrawlerTest {
 
         config = ConfigUtil.load(new File(this.getClass().getResource("/").getFile()));
         Assert.assertEquals(".html", config.getString(Keys.OUTPUT_EXTENSION));
-        db = DBUtil.createDataStore("memory", "documents" + System.currentTimeMillis());
+        db = DBUtil.createDataStore(storeType, "documents" + System.currentTimeMillis());
+
+        // register all types used in the sample content, documents of unknown types are always considered new
+        DocumentTypes.addDocumentType("paper");
+        DocumentTypes.addDocumentType("allcontent");
+        DBUtil.updateSchema(db);
     }
 
     @After
@@ -78,6 +101,122 @@ public class CrawlerTest {
         Assert.assertEquals(2, publishedPostsByTag.size());
     }
 
+    @Test
+    public void documentBodiesAreLoadedOnDemand() throws ConfigurationException {
+        Crawler crawler = new Crawler(db, sourceFolder, config);
+        crawler.crawl(new File(sourceFolder.getPath() + File.separator + config.getString(Keys.CONTENT_FOLDER)));
+
+        DocumentList posts = db.getAllContent("post");
+        for (Map<String, Object> post : posts) {
+            if (!DBUtil.JAVA_STORE.equals(storeType)) {
+                // the in-memory store keeps bodies in the heap anyway
+                assertThat(post).isInstanceOf(LazyDocument.class);
+            }
+            assertThat(post).containsKey(Crawler.Attributes.BODY);
+            assertThat((String) post.get(Crawler.Attributes.BODY)).isNotEmpty();
+        }
+
+        // copies, as made by template engines, contain the body as well
+        Map<String, Object> copy = new HashMap<String, Object>(posts.get(0));
+        assertThat(copy.get(Crawler.Attributes.BODY)).isEqualTo(posts.get(0).get(Crawler.Attributes.BODY));
+        assertThat(copy.get(Crawler.Attributes.TITLE)).isEqualTo(posts.get(0).get(Crawler.Attributes.TITLE));
+    }
+
+    @Test
+    public void crawlParallel() throws ConfigurationException {
+        File contentFolder = new File(sourceFolder.getPath() + File.separator + config.getString(Keys.CONTENT_FOLDER));
+        Crawler serialCrawler = new Crawler(db, sourceFolder, config);
+        int serialCount = serialCrawler.crawl(contentFolder);
+        DocumentList serialPosts = db.getAllContent("post");
+        for (String docType : DocumentTypes.getDocumentTypes()) {
+            db.deleteAllByDocType(docType);
+        }
+
+        config.setProperty(Keys.CRAWL_THREADS, 4);
+        Crawler parallelCrawler = new Crawler(db, sourceFolder, config);
+        int parallelCount = parallelCrawler.crawl(contentFolder);
+
+        Assert.assertEquals(serialCount, parallelCount);
+        Assert.assertEquals(3, db.getDocumentCount("post"));
+        Assert.assertEquals(3, db.getDocumentCount("page"));
+
+        DocumentList parallelPosts = db.getAllContent("post");
+        assertThat(parallelPosts.size()).isEqualTo(serialPosts.size());
+        for (int n = 0; n < serialPosts.size(); n++) {
+            assertThat(parallelPosts.get(n).get(Crawler.Attributes.URI)).isEqualTo(serialPosts.get(n).get(Crawler.Attributes.URI));
+            assertThat(parallelPosts.get(n).get(Crawler.Attributes.BODY)).isEqualTo(serialPosts.get(n).get(Crawler.Attributes.BODY));
+        }
+    }
+
+    @Test
+    public void recrawlSkipsUnchangedDocuments() throws ConfigurationException {
+        File contentFolder = new File(sourceFolder.getPath() + File.separator + config.getString(Keys.CONTENT_FOLDER));
+        Crawler crawler = new Crawler(db, sourceFolder, config);
+        int firstCount = crawler.crawl(contentFolder);
+        assertThat(firstCount).isGreaterThan(0);
+
+        for (String docType : new String[] {"post", "page"}) {
+            assertThat(db.getDocumentStatuses(docType).size()).isEqualTo(3);
+        }
+
+        // documents with unchanged sources are not parsed again, even if they have not been rendered yet
+        assertThat(crawler.crawl(contentFolder)).isEqualTo(0);
+        Assert.assertEquals(3, db.getDocumentCount("post"));
+        Assert.assertEquals(3, db.getDocumentCount("page"));
+    }
+
+    @Test
+    public void recrawlAfterParserConfigurationChange() throws ConfigurationException {
+        File contentFolder = new File(sourceFolder.getPath() + File.separator + config.getString(Keys.CONTENT_FOLDER));
+        int firstCount = new Crawler(db, sourceFolder, config).crawl(contentFolder);
+
+        // markdown options do not affect HTML content
+        config.setProperty("markdown.extensions", "HARDWRAPS");
+        assertThat(new Crawler(db, sourceFolder, config).crawl(contentFolder)).isEqualTo(0);
+
+        config.setProperty(Keys.DATE_FORMAT, "dd.MM.yyyy");
+        assertThat(new Crawler(db, sourceFolder, config).crawl(contentFolder)).isEqualTo(firstCount);
+    }
+
+    @Test
+    public void recrawlWithStatVerification() throws ConfigurationException {
+        config.setProperty(Keys.CRAWL_VERIFY, "stat");
+        assertThat(recrawlTouchedFile()).isEqualTo(1);
+    }
+
+    @Test
+    public void recrawlWithStatAndHashVerification() throws ConfigurationException {
+        config.setProperty(Keys.CRAWL_VERIFY, "stat+hash");
+        assertThat(recrawlTouchedFile()).isEqualTo(0);
+
+        // the modification time of the touched file has been recorded
+        File contentFolder = new File(sourceFolder.getPath() + File.separator + config.getString(Keys.CONTENT_FOLDER));
+        long touched = new File(contentFolder, "blog/2013/second-post.html").lastModified() + 10000;
+        DocumentList status = db.getDocumentStatus("post", "blog/2013/second-post.html");
+        assertThat(status.size()).isEqualTo(1);
+        assertThat(status.get(0).get("filemodified")).isEqualTo(touched);
+    }
+
+    /**
+     * Crawls, touches one post without modifying it and crawls again.
+     *
+     * @return The number of files processed by the second crawl.
+     */
+    private int recrawlTouchedFile() {
+        File contentFolder = new File(sourceFolder.getPath() + File.separator + config.getString(Keys.CONTENT_FOLDER));
+        Crawler crawler = new Crawler(db, sourceFolder, config);
+        crawler.crawl(contentFolder);
+
+        File post = new File(contentFolder, "blog/2013/second-post.html");
+        long lastModified = post.lastModified();
+        assertThat(post.setLastModified(lastModified + 10000)).isTrue();
+        try {
+            return crawler.crawl(contentFolder);
+        } finally {
+            post.setLastModified(lastModified);
+        }
+    }
+
     @Test
     public void renderWithPrettyUrls() throws Exception {
         Map<String, Object> testProperties = new HashMap<String, Object>();
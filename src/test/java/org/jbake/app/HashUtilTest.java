@@ -0,0 +1,93 @@
+package org.jbake.app;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HashUtilTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File root;
+
+    @Before
+    public void setup() throws Exception {
+        root = folder.newFolder("templates");
+        FileUtils.writeStringToFile(new File(root, "index.ftl"), "index", "UTF-8");
+        FileUtils.writeStringToFile(new File(root, "post.ftl"), "post", "UTF-8");
+        FileUtils.writeStringToFile(new File(root, "include/header.ftl"), "header", "UTF-8");
+        FileUtils.writeStringToFile(new File(root, "include/footer.ftl"), "footer", "UTF-8");
+    }
+
+    @Test
+    public void hashOfFileIsSha1OfContents() throws Exception {
+        File file = folder.newFile("hello.txt");
+        FileUtils.writeStringToFile(file, "hello", "UTF-8");
+
+        assertThat(HashUtil.sha1(file)).isEqualTo("aaf4c61ddcc5e8a2dabede0f3b482cd9aea9434d");
+    }
+
+    @Test
+    public void hashOfLargeFileIsSha1OfContents() throws Exception {
+        byte[] contents = new byte[3 * 1024 * 1024 + 17];
+        new Random(42).nextBytes(contents);
+        File file = folder.newFile("large.bin");
+        FileUtils.writeByteArrayToFile(file, contents);
+
+        String expected = HashUtil.toHex(MessageDigest.getInstance("SHA-1").digest(contents));
+        assertThat(HashUtil.sha1(file)).isEqualTo(expected);
+    }
+
+    @Test
+    public void toHex() {
+        assertThat(HashUtil.toHex(new byte[] {0, 1, 15, 16, 127, -128, -1})).isEqualTo("00010f107f80ff");
+    }
+
+    @Test
+    public void parallelDirectoryHashEqualsSerialHash() throws Exception {
+        assertThat(HashUtil.sha1(root, 4)).isEqualTo(HashUtil.sha1(root));
+    }
+
+    @Test
+    public void fileHashesAreSortedByPath() throws Exception {
+        FileUtils.writeStringToFile(new File(root, "Archive.ftl"), "archive", "UTF-8");
+        FileUtils.writeStringToFile(new File(root, "include-old.ftl"), "old", "UTF-8");
+
+        assertThat(HashUtil.sha1Files(root, 4).keySet()).containsExactly(
+                "Archive.ftl", "include-old.ftl", "include/footer.ftl", "include/header.ftl", "index.ftl", "post.ftl");
+        assertThat(HashUtil.sha1Files(root, 1).get("post.ftl")).isEqualTo(HashUtil.sha1(new File(root, "post.ftl")));
+    }
+
+    @Test
+    public void directoryHashDependsOnPaths() throws Exception {
+        String before = HashUtil.sha1(root);
+        assertThat(new File(root, "post.ftl").renameTo(new File(root, "page.ftl"))).isTrue();
+
+        assertThat(HashUtil.sha1(root)).isNotEqualTo(before);
+    }
+
+    @Test
+    public void directoryHashDependsOnContents() throws Exception {
+        String before = HashUtil.sha1(root);
+        FileUtils.writeStringToFile(new File(root, "include/footer.ftl"), "modified footer", "UTF-8");
+
+        assertThat(HashUtil.sha1(root)).isNotEqualTo(before);
+    }
+
+    @Test
+    public void directoryHashIsIndependentOfLocation() throws Exception {
+        File copy = folder.newFolder("copy");
+        FileUtils.copyDirectory(root, copy);
+
+        assertThat(HashUtil.sha1(copy)).isEqualTo(HashUtil.sha1(root));
+    }
+}
@@ -0,0 +1,153 @@
+package org.jbake.app;
+
+import org.apache.commons.configuration.CompositeConfiguration;
+import org.jbake.app.ConfigUtil.Keys;
+import org.jbake.model.DocumentTypes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MemoryContentStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private CompositeConfiguration config;
+    private File sourceFolder;
+    private File contentFolder;
+
+    @Before
+    public void setup() throws Exception {
+        sourceFolder = new File(this.getClass().getResource("/").getFile());
+        config = ConfigUtil.load(sourceFolder);
+        contentFolder = new File(sourceFolder, config.getString(Keys.CONTENT_FOLDER));
+
+        // register all types used in the sample content, documents of unknown types are always considered new
+        DocumentTypes.addDocumentType("paper");
+        DocumentTypes.addDocumentType("allcontent");
+    }
+
+    @After
+    public void cleanup() {
+        DBUtil.closeDataStore();
+    }
+
+    @Test
+    public void queriesMatchOrientStore() {
+        ContentStore orient = DBUtil.createDataStore("memory", "documents" + System.currentTimeMillis());
+        try {
+            DBUtil.updateSchema(orient);
+            new Crawler(orient, sourceFolder, config).crawl(contentFolder);
+            ContentStore memory = new MemoryContentStore();
+            new Crawler(memory, sourceFolder, config).crawl(contentFolder);
+
+            assertThat(memory.getDocumentCount("post")).isEqualTo(orient.getDocumentCount("post"));
+            assertThat(memory.getDocumentCount("page")).isEqualTo(orient.getDocumentCount("page"));
+            assertThat(uris(memory.getPublishedPosts())).isEqualTo(uris(orient.getPublishedPosts()));
+            assertThat(uris(memory.getPublishedPages())).isEqualTo(uris(orient.getPublishedPages()));
+            assertThat(uris(memory.getAllContent("post"))).isEqualTo(uris(orient.getAllContent("post")));
+            assertThat(uris(memory.getPublishedPostsByTag("blog"))).isEqualTo(uris(orient.getPublishedPostsByTag("blog")));
+            assertThat(uris(memory.getUnrenderedContent("page"))).containsOnlyElementsOf(uris(orient.getUnrenderedContent("page")));
+            assertThat(memory.getTags()).isEqualTo(orient.getTags());
+            assertThat(memory.getAllTags()).isEqualTo(orient.getAllTags());
+            assertThat(memory.getTagIndex().getCounts()).isEqualTo(orient.getTagIndex().getCounts());
+
+            String uri = "blog/2013/second-post.html";
+            assertThat(memory.getDocumentStatus("post", uri).get(0).get("sha1"))
+                    .isEqualTo(orient.getDocumentStatus("post", uri).get(0).get("sha1"));
+        } finally {
+            orient.drop();
+            orient.close();
+        }
+    }
+
+    @Test
+    public void renderFlags() {
+        ContentStore db = new MemoryContentStore();
+        new Crawler(db, sourceFolder, config).crawl(contentFolder);
+        assertThat(db.hasUnrenderedContent()).isTrue();
+
+        for (String docType : DocumentTypes.getDocumentTypes()) {
+            db.markConentAsRendered(docType);
+        }
+        assertThat(db.hasUnrenderedContent()).isFalse();
+
+        db.markContentAsUnrendered("post");
+        assertThat(db.getUnrenderedContent("post").size()).isEqualTo(3);
+        assertThat(db.getUnrenderedContent("page")).isEmpty();
+    }
+
+    @Test
+    public void pagination() {
+        ContentStore db = new MemoryContentStore();
+        for (int n = 1; n <= 5; n++) {
+            Map<String, Object> document = new HashMap<String, Object>();
+            document.put("name", "dummyfile" + n);
+            document.put("sourceuri", "dummyfile" + n);
+            db.addDocument("post", document);
+        }
+
+        DocumentList posts = db.getAllContent("post", 2, 2);
+
+        assertThat(posts.size()).isEqualTo(2);
+        assertThat(posts.get(0).get("name")).isEqualTo("dummyfile3");
+        assertThat(posts.get(1).get("name")).isEqualTo("dummyfile4");
+    }
+
+    @Test
+    public void replacesDocumentsBySource() {
+        ContentStore db = new MemoryContentStore();
+        Map<String, Object> document = new HashMap<String, Object>();
+        document.put("sourceuri", "about.html");
+        document.put("title", "About");
+        db.addDocument("page", document);
+
+        db.deleteContent("about.html");
+        document.put("title", "About us");
+        db.addDocument("page", document);
+
+        DocumentList pages = db.getAllContent("page");
+        assertThat(pages.size()).isEqualTo(1);
+        assertThat(pages.get(0).get("title")).isEqualTo("About us");
+    }
+
+    @Test
+    public void snapshotSurvivesRestart() {
+        File storeFolder = new File(folder.getRoot(), "cache");
+        ContentStore db = DBUtil.createDataStore(DBUtil.SNAPSHOT_STORE, storeFolder.getPath());
+        int firstCount = new Crawler(db, sourceFolder, config).crawl(contentFolder);
+        assertThat(firstCount).isGreaterThan(0);
+        db.updateSignature("template.post", "1");
+        db.close();
+        db.close();
+
+        assertThat(new File(storeFolder, MemoryContentStore.SNAPSHOT_NAME)).isFile();
+
+        db = DBUtil.createDataStore(DBUtil.SNAPSHOT_STORE, storeFolder.getPath());
+        assertThat(new Crawler(db, sourceFolder, config).crawl(contentFolder)).isEqualTo(0);
+        assertThat(db.getDocumentCount("post")).isEqualTo(3);
+        assertThat(db.getPublishedPostsByTag("blog").size()).isEqualTo(2);
+        assertThat(db.getSignature("template.post")).isEqualTo("1");
+
+        db.drop();
+        assertThat(new File(storeFolder, MemoryContentStore.SNAPSHOT_NAME)).doesNotExist();
+    }
+
+    private static List<Object> uris(DocumentList documents) {
+        List<Object> result = new ArrayList<Object>();
+        for (Map<String, Object> document : documents) {
+            result.add(document.get(Crawler.Attributes.URI));
+        }
+        return result;
+    }
+}
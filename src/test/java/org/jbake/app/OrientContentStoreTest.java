@@ -0,0 +1,125 @@
+package org.jbake.app;
+
+import org.apache.commons.configuration.CompositeConfiguration;
+import org.jbake.app.ConfigUtil.Keys;
+import org.jbake.model.DocumentTypes;
+import org.jbake.template.ModelExtractors;
+import org.jbake.template.TemplateEngineAdapter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(Parameterized.class)
+public class OrientContentStoreTest {
+
+    /**
+     * Runs all tests against the persistent OrientDB and the snapshot of the in-memory content store.
+     */
+    @Parameters(name = "{0}")
+    public static Object[] storeTypes() {
+        return new Object[] {"plocal", DBUtil.SNAPSHOT_STORE};
+    }
+
+    @Parameter
+    public String storeType;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private CompositeConfiguration config;
+    private File sourceFolder;
+    private File contentFolder;
+    private String dbPath;
+    private ContentStore db;
+
+    @Before
+    public void setup() throws Exception {
+        sourceFolder = new File(this.getClass().getResource("/").getFile());
+        config = ConfigUtil.load(sourceFolder);
+        contentFolder = new File(sourceFolder, config.getString(Keys.CONTENT_FOLDER));
+        dbPath = new File(folder.getRoot(), "cache").getAbsolutePath();
+
+        // register all types used in the sample content, documents of unknown types are always considered new
+        DocumentTypes.addDocumentType("paper");
+        DocumentTypes.addDocumentType("allcontent");
+    }
+
+    @After
+    public void cleanup() {
+        if (db != null) {
+            db.close();
+            db.shutdown();
+        }
+    }
+
+    private ContentStore open() {
+        db = DBUtil.createDataStore(storeType, dbPath);
+        DBUtil.updateSchema(db);
+        return db;
+    }
+
+    @Test
+    public void persistentStoreSurvivesRestart() {
+        int firstCount = new Crawler(open(), sourceFolder, config).crawl(contentFolder);
+        assertThat(firstCount).isGreaterThan(0);
+        db.close();
+        db.shutdown();
+
+        int secondCount = new Crawler(open(), sourceFolder, config).crawl(contentFolder);
+
+        assertThat(secondCount).isEqualTo(0);
+        assertThat(db.getDocumentCount("post")).isEqualTo(3);
+        assertThat(db.getPublishedPosts().size()).isEqualTo(2);
+        assertThat(db.getPublishedPostsByTag("blog").size()).isEqualTo(2);
+        assertThat(db.getDocumentStatus("post", "blog/2013/second-post.html").size()).isEqualTo(1);
+    }
+
+    @Test
+    public void signaturesAreReplaced() {
+        open().updateSignature("template.post", "1");
+        db.updateSignature("template.post", "2");
+
+        assertThat(db.getSignature("template.post")).isEqualTo("2");
+    }
+
+    @Test
+    public void extractedModelSurvivesSignatureUpdates() throws Exception {
+        new Crawler(open(), sourceFolder, config).crawl(contentFolder);
+        ModelExtractors extractors = ModelExtractors.getInstance();
+        TemplateEngineAdapter<Object> adapter = new TemplateEngineAdapter.NoopAdapter();
+        Map<String, Object> model = new HashMap<String, Object>();
+        DocumentList posts = (DocumentList) extractors.extractAndTransform(db, "published_posts", model, adapter);
+
+        // rendering records signatures between the pages of a bake
+        db.updateSignature("tag.blog", "1");
+        DocumentList cached = (DocumentList) extractors.extractAndTransform(db, "published_posts", model, adapter);
+        assertThat(cached.get(0)).isSameAs(posts.get(0));
+
+        db.markContentAsUnrendered("post");
+        DocumentList extracted = (DocumentList) extractors.extractAndTransform(db, "published_posts", model, adapter);
+        assertThat(extracted.get(0)).isNotSameAs(posts.get(0));
+    }
+
+    @Test
+    public void closeAndShutdownAreIdempotent() {
+        open();
+        db.close();
+        db.shutdown();
+        db.close();
+        db.shutdown();
+
+        assertThat(open().getDocumentCount("post")).isEqualTo(0);
+    }
+}
@@ -0,0 +1,139 @@
+package org.jbake.app;
+
+import org.apache.commons.configuration.CompositeConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.jbake.app.ConfigUtil.Keys;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.io.File;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(Parameterized.class)
+public class OvenTest {
+
+    /**
+     * Runs all tests against the OrientDB and the in-memory content store, both kept across the bakes of a server.
+     */
+    @Parameters(name = "{0}")
+    public static Object[] storeTypes() {
+        return new Object[] {"memory", DBUtil.JAVA_STORE};
+    }
+
+    @Parameter
+    public String storeType;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File project;
+    private File destination;
+    private CompositeConfiguration config;
+    private Oven oven;
+
+    @Before
+    public void setup() throws Exception {
+        project = folder.newFolder("project");
+        destination = folder.newFolder("output");
+        FileUtils.copyDirectory(new File(getClass().getResource("/freemarkerTemplates").getFile()),
+                new File(project, "templates"));
+        writeContent("about.html", "page", null, "All about stuff!");
+        writeContent("blog/first.html", "post", "2012-01-01", "First post");
+        writeContent("blog/second.html", "post", "2013-01-01", "Second post");
+
+        config = ConfigUtil.load(project);
+        config.setProperty("site.host", "http://www.jbake.org");
+        config.setProperty(Keys.DB_STORE, storeType);
+        config.setProperty(Keys.DB_PATH, "oven" + System.currentTimeMillis());
+        config.setProperty(Keys.RENDER_TAGS_INCREMENTAL, true);
+        config.setProperty(Keys.RENDER_INDEX_INCREMENTAL, true);
+        config.setProperty(Keys.PAGINATE_INDEX, true);
+        config.setProperty(Keys.POSTS_PER_PAGE, 1);
+        oven = new Oven(project, destination, config, true);
+        oven.setupPaths();
+        oven.setupDB();
+    }
+
+    @After
+    public void cleanup() {
+        oven.getDB().drop();
+        oven.shutdownDB();
+    }
+
+    @Test
+    public void templateEditAfterContentOnlyBake() throws Exception {
+        oven.bakeIncremental();
+        assertThat(oven.getErrors()).isEmpty();
+
+        // only content changes, tag files and index pages are up to date
+        writeContent("about.html", "page", null, "All about other stuff!");
+        oven.bakeIncremental();
+
+        edit("tags.ftl", "<h1>Tag: ${tag}</h1>", "<h1>Edited tag: ${tag}</h1>");
+        edit("index.ftl", "<h1>Blog</h1>", "<h1>Edited blog</h1>");
+        // as the server does, the template engines cache templates
+        oven.resetRenderer();
+        oven.bakeIncremental();
+        assertThat(oven.getErrors()).isEmpty();
+        assertOutputContains("tags/blog.html", "Edited tag: blog");
+        assertOutputContains("index.html", "Edited blog");
+        assertOutputContains("index2.html", "Edited blog");
+
+        // nothing has changed
+        oven.bakeIncremental();
+        assertOutputContains("tags/blog.html", "Edited tag: blog");
+        assertOutputContains("index2.html", "Edited blog");
+    }
+
+    @Test
+    public void digestsCanBeDisabled() throws Exception {
+        // the index shows an attribute of pages not covered by its digest
+        edit("index.ftl", "<h1>Blog</h1>", "<h1>Blog</h1><#list published_pages as page>${page.body}</#list>");
+        config.setProperty(Keys.RENDER_DIGEST, false);
+        // the index pages have signatures of their own
+        config.setProperty(Keys.RENDER_INDEX_INCREMENTAL, false);
+        oven.bakeIncremental();
+        assertThat(oven.getErrors()).isEmpty();
+        assertOutputContains("index.html", "All about stuff!");
+
+        writeContent("about.html", "page", null, "All about other stuff!");
+        oven.bakeIncremental();
+        assertThat(oven.getErrors()).isEmpty();
+        assertOutputContains("index.html", "All about other stuff!");
+    }
+
+    private void assertOutputContains(String path, String text) throws Exception {
+        assertThat(FileUtils.readFileToString(new File(destination, path), "UTF-8")).contains(text);
+    }
+
+    private void edit(String template, String text, String replacement) throws Exception {
+        File file = new File(project, "templates/" + template);
+        String content = FileUtils.readFileToString(file, "UTF-8");
+        assertThat(content).contains(text);
+        FileUtils.writeStringToFile(file, content.replace(text, replacement), "UTF-8");
+    }
+
+    private void writeContent(String path, String type, String date, String body) throws Exception {
+        StringBuilder content = new StringBuilder();
+        content.append("title=").append(path).append('\n');
+        if (date != null) {
+            content.append("date=").append(date).append('\n');
+        }
+        content.append("type=").append(type).append('\n');
+        if ("post".equals(type)) {
+            content.append("tags=blog\n");
+        }
+        content.append("status=published\n");
+        content.append("~~~~~~\n\n").append(body);
+        FileUtils.writeStringToFile(new File(project, "content/" + path), content.toString(), "UTF-8");
+    }
+
+}
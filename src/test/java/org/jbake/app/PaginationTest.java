@@ -23,12 +23,15 @@
  */
 package org.jbake.app;
 
-import com.orientechnologies.orient.core.record.impl.ODocument;
 import org.apache.commons.configuration.CompositeConfiguration;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 
 import java.io.File;
 import java.util.HashMap;
@@ -38,8 +41,20 @@ import java.util.Map;
 /**
  * @author jdlee
  */
+@RunWith(Parameterized.class)
 public class PaginationTest {
 
+    /**
+     * Runs all tests against the OrientDB and the in-memory content store.
+     */
+    @Parameters(name = "{0}")
+    public static Object[] storeTypes() {
+        return new Object[] {"memory", DBUtil.JAVA_STORE};
+    }
+
+    @Parameter
+    public String storeType;
+
     private CompositeConfiguration config;
     private ContentStore db;
 
@@ -56,7 +71,7 @@ public class PaginationTest {
         }
         config.setProperty(ConfigUtil.Keys.PAGINATE_INDEX, true);
         config.setProperty(ConfigUtil.Keys.POSTS_PER_PAGE, 1);
-        db = DBUtil.createDataStore("memory", "documents" + System.currentTimeMillis());
+        db = DBUtil.createDataStore(storeType, "documents" + System.currentTimeMillis());
     }
 
     @After
@@ -74,20 +89,15 @@ public class PaginationTest {
         for (int i = 1; i <= TOTAL_POSTS; i++) {
             fileContents.put("name", "dummyfile" + i);
 
-            ODocument doc = new ODocument("post");
-            doc.fields(fileContents);
-            boolean cached = fileContents.get("cached") != null ? Boolean.valueOf((String) fileContents.get("cached")) : true;
-            doc.field("cached", cached);
-            doc.save();
+            fileContents.put("cached", true);
+            db.addDocument("post", fileContents);
         }
 
         int iterationCount = 0;
         int start = 0;
-        db.setLimit(PER_PAGE);
 
         while (start < TOTAL_POSTS) {
-            db.setStart(start);
-            DocumentList posts = db.getAllContent("post");
+            DocumentList posts = db.getAllContent("post", start, PER_PAGE);
             Assert.assertEquals("dummyfile" + (1 + (PER_PAGE * iterationCount)), posts.get(0).get("name"));
 //            Assert.assertEquals("dummyfile" + (PER_PAGE + (PER_PAGE * iterationCount)), posts.get(posts.size()-1).field("name"));
             iterationCount++;
@@ -0,0 +1,109 @@
+package org.jbake.app;
+
+import org.apache.commons.configuration.CompositeConfiguration;
+import org.jbake.app.Crawler.Attributes;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TagIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void indexesPostsByTag() {
+        DocumentList posts = new DocumentList();
+        posts.add(post("third", "java", "blog"));
+        posts.add(post("second", "blog", "blog"));
+        posts.add(post("first", "java"));
+        posts.add(post("untagged"));
+
+        TagIndex index = TagIndex.create(posts);
+
+        assertThat(index.getTags()).containsExactly("blog", "java");
+        assertThat(index.getCount("java")).isEqualTo(2);
+        assertThat(index.getCount("blog")).isEqualTo(2);
+        assertThat(index.getCount("unknown")).isEqualTo(0);
+
+        DocumentList java = index.getPosts("java");
+        assertThat(java.size()).isEqualTo(2);
+        assertThat(java.get(0).get(Attributes.TITLE)).isEqualTo("third");
+        assertThat(java.get(1).get(Attributes.TITLE)).isEqualTo("first");
+        assertThat(index.getPosts("unknown")).isEmpty();
+
+        // callers get their own lists
+        java.clear();
+        assertThat(index.getPosts("java").size()).isEqualTo(2);
+    }
+
+    @Test
+    public void isRebuiltWhenContentChanges() {
+        ContentStore db = new MemoryContentStore();
+        db.addDocument("post", published("first.html", "java"));
+        assertThat(db.getTagIndex().getCounts()).containsEntry("java", 1);
+
+        TagIndex index = db.getTagIndex();
+        assertThat(db.getTagIndex()).isSameAs(index);
+
+        db.addDocument("post", published("second.html", "java", "blog"));
+        assertThat(db.getTagIndex()).isNotSameAs(index);
+        assertThat(db.getTagIndex().getCounts()).containsEntry("java", 2).containsEntry("blog", 1);
+        assertThat(db.getPublishedPostsByTag("blog").size()).isEqualTo(1);
+    }
+
+    @Test
+    public void isBuiltOnceWhenRenderingTags() throws Exception {
+        File sourceFolder = new File(getClass().getResource("/").getFile());
+        CompositeConfiguration config = ConfigUtil.load(sourceFolder);
+        final Set<TagIndex> built = Collections.newSetFromMap(new IdentityHashMap<TagIndex, Boolean>());
+        ContentStore db = new OrientContentStore("memory", "tags" + System.currentTimeMillis()) {
+            @Override
+            public synchronized TagIndex getTagIndex() {
+                TagIndex index = super.getTagIndex();
+                built.add(index);
+                return index;
+            }
+        };
+        try {
+            new Crawler(db, sourceFolder, config).crawl(new File(sourceFolder, "content"));
+            Map<String, Object> java = new HashMap<String, Object>(db.getPublishedPosts().get(0));
+            java.put("sourceuri", "blog/java.html");
+            java.put(Attributes.URI, "blog/java.html");
+            java.put(Attributes.TAGS, new String[] {"java"});
+            db.addDocument("post", java);
+            Renderer renderer = new Renderer(db, folder.getRoot(), new File(sourceFolder, "freemarkerTemplates"), config);
+
+            // recording the signature of each tag file does not invalidate the index
+            assertThat(renderer.renderTags("tags")).isEqualTo(2);
+            assertThat(built).hasSize(1);
+        } finally {
+            db.drop();
+            db.close();
+        }
+    }
+
+    private static Map<String, Object> post(String title, String... tags) {
+        Map<String, Object> post = new HashMap<String, Object>();
+        post.put(Attributes.TITLE, title);
+        post.put(Attributes.TAGS, Arrays.asList(tags));
+        return post;
+    }
+
+    private static Map<String, Object> published(String uri, String... tags) {
+        Map<String, Object> post = post(uri, tags);
+        post.put("sourceuri", uri);
+        post.put(Attributes.STATUS, Attributes.Status.PUBLISHED);
+        return post;
+    }
+}
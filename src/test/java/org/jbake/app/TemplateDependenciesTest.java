@@ -0,0 +1,131 @@
+package org.jbake.app;
+
+import org.apache.commons.configuration.CompositeConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TemplateDependenciesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private CompositeConfiguration config;
+    private ContentStore db;
+    private File templateFolder;
+
+    @Before
+    public void setup() throws Exception {
+        File sourceFolder = new File(this.getClass().getResource("/").getFile());
+        config = ConfigUtil.load(sourceFolder);
+        templateFolder = folder.newFolder("templates");
+        FileUtils.copyDirectory(new File(sourceFolder, "freemarkerTemplates"), templateFolder);
+        db = DBUtil.createDataStore("memory", "documents" + System.currentTimeMillis());
+    }
+
+    @After
+    public void cleanup() throws InterruptedException {
+        db.drop();
+        db.close();
+    }
+
+    @Test
+    public void findsIncludedTemplates() {
+        TemplateDependencies dependencies = new TemplateDependencies(templateFolder, config);
+
+        assertThat(dependencies.getDependencies("post")).contains("post.ftl", "header.ftl", "menu.ftl", "footer.ftl");
+        assertThat(dependencies.getDependencies("sitemap")).containsOnly("sitemap.ftl");
+    }
+
+    @Test
+    public void findsIncludesWithoutExtension() throws Exception {
+        FileUtils.writeStringToFile(new File(templateFolder, "layout.jade"), "html\n  include nav\n  block content", "UTF-8");
+        FileUtils.writeStringToFile(new File(templateFolder, "nav.jade"), "nav", "UTF-8");
+        FileUtils.writeStringToFile(new File(templateFolder, "post.jade"), "extends layout\n\nblock content\n  p post", "UTF-8");
+        config.setProperty("template.post.file", "post.jade");
+
+        assertThat(new TemplateDependencies(templateFolder, config).getDependencies("post"))
+                .containsOnly("post.jade", "layout.jade", "nav.jade");
+    }
+
+    @Test
+    public void findsThymeleafFragmentsWithoutExtension() throws Exception {
+        FileUtils.writeStringToFile(new File(templateFolder, "header.thyme"), "<head th:fragment=\"head\"/>", "UTF-8");
+        FileUtils.writeStringToFile(new File(templateFolder, "fragments/nav.thyme"), "<nav th:fragment=\"nav\"/>", "UTF-8");
+        FileUtils.writeStringToFile(new File(templateFolder, "footer.thyme"), "<footer th:fragment=\"footer\"/>", "UTF-8");
+        FileUtils.writeStringToFile(new File(templateFolder, "post.thyme"), "<html>\n"
+                + "<head th:replace=\"header :: head\"/>\n"
+                + "<div th:insert=\"~{fragments/nav}\"></div>\n"
+                + "<div data-th-include=\"footer::footer\"></div>\n"
+                + "</html>", "UTF-8");
+        config.setProperty("template.post.file", "post.thyme");
+
+        assertThat(new TemplateDependencies(templateFolder, config).getDependencies("post"))
+                .containsOnly("post.thyme", "header.thyme", "fragments/nav.thyme", "footer.thyme");
+    }
+
+    @Test
+    public void signaturesAreOnlyStoredWhenRendered() throws Exception {
+        TemplateDependencies dependencies = new TemplateDependencies(templateFolder, config);
+        assertThat(dependencies.getChangedTypes(db)).contains("post", "feed");
+
+        // the rendering of the feed failed
+        dependencies.storeSignatures(db, Arrays.asList("post"));
+
+        assertThat(new TemplateDependencies(templateFolder, config).getChangedTypes(db))
+                .contains("feed")
+                .doesNotContain("post");
+    }
+
+    @Test
+    public void onlyDependentTypesChange() throws Exception {
+        assertThat(update(new TemplateDependencies(templateFolder, config))).contains("post", "page", "sitemap");
+        assertThat(update(new TemplateDependencies(templateFolder, config))).isEmpty();
+
+        FileUtils.writeStringToFile(new File(templateFolder, "footer.ftl"), "<footer/>", "UTF-8");
+
+        assertThat(update(new TemplateDependencies(templateFolder, config)))
+                .contains("post", "page", "masterindex")
+                .doesNotContain("sitemap", "feed");
+        assertThat(update(new TemplateDependencies(templateFolder, config))).isEmpty();
+    }
+
+    @Test
+    public void changedInputChangesAllSignatures() {
+        TemplateDependencies dependencies = new TemplateDependencies(templateFolder, config);
+        dependencies.addInput("assets", "1");
+        assertThat(update(dependencies)).contains("post", "sitemap");
+
+        dependencies = new TemplateDependencies(templateFolder, config);
+        dependencies.addInput("assets", "1");
+        assertThat(update(dependencies)).isEmpty();
+
+        dependencies = new TemplateDependencies(templateFolder, config);
+        dependencies.addInput("assets", "2");
+        assertThat(update(dependencies)).contains("post", "page", "masterindex", "sitemap", "feed");
+    }
+
+    @Test
+    public void changedTemplateNameChangesSignature() {
+        assertThat(update(new TemplateDependencies(templateFolder, config))).contains("feed");
+
+        config.setProperty("template.feed.file", "sitemap.ftl");
+
+        assertThat(update(new TemplateDependencies(templateFolder, config))).containsOnly("feed");
+    }
+
+    private Set<String> update(TemplateDependencies dependencies) {
+        Set<String> result = dependencies.getChangedTypes(db);
+        dependencies.storeSignatures(db, result);
+        return result;
+    }
+}
@@ -39,6 +39,10 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 
 import java.io.File;
 import java.net.URL;
@@ -55,8 +59,20 @@ import static org.assertj.core.api.Assertions.assertThat;
  *
  * @author jdlee
  */
+@RunWith(Parameterized.class)
 public abstract class AbstractTemplateEngineRenderingTest {
 
+    /**
+     * Runs all tests against the OrientDB and the in-memory content store.
+     */
+    @Parameters(name = "{0}")
+    public static Object[] storeTypes() {
+        return new Object[] {"memory", DBUtil.JAVA_STORE};
+    }
+
+    @Parameter
+    public String storeType;
+
     @Rule
     public TemporaryFolder folder = new TemporaryFolder();
 
@@ -70,7 +86,7 @@ public abstract class AbstractTemplateEngineRenderingTest {
     protected final String templateExtension;
     protected final Map<String, List<String>> outputStrings = new HashMap<String, List<String>>();
     private Crawler crawler;
-    private Parser parser;
+    protected Parser parser;
     private Renderer renderer;
     protected Locale currentLocale;
 
@@ -111,7 +127,7 @@ public abstract class AbstractTemplateEngineRenderingTest {
             }
         }
         Assert.assertEquals(".html", config.getString(ConfigUtil.Keys.OUTPUT_EXTENSION));
-        db = DBUtil.createDataStore("memory", "documents"+System.currentTimeMillis());
+        db = DBUtil.createDataStore(storeType, "documents"+System.currentTimeMillis());
 
         crawler = new Crawler(db, sourceFolder, config);
         crawler.crawl(new File(sourceFolder.getPath() + File.separator + "content"));
@@ -27,6 +27,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.File;
 import java.util.Arrays;
+import java.util.Map;
 
 import org.apache.commons.io.FileUtils;
 import org.jbake.app.Crawler;
@@ -59,4 +60,80 @@ public class FreemarkerTemplateEngineRenderingTest extends AbstractTemplateEngin
         assertThat(output2).contains("<a href=\"blog/2012/first-post.html\">");
 	}
 
+    @Test
+    public void renderPaginatedIndexIncrementally() throws Exception {
+        config.setProperty(Keys.PAGINATE_INDEX, true);
+        config.setProperty(Keys.POSTS_PER_PAGE, 1);
+        Renderer renderer = new Renderer(db, destinationFolder, templateFolder, config);
+        renderer.renderIndex("index.html");
+
+        File first = new File(destinationFolder, "index.html");
+        File second = new File(destinationFolder, "index2.html");
+        assertThat(FileUtils.readFileToString(second)).contains("<a href=\"blog/2012/first-post.html\">");
+
+        // only pages whose posts have changed or whose file is missing are rendered again
+        FileUtils.writeStringToFile(first, "unchanged");
+        Assert.assertTrue(second.delete());
+        renderer.renderIndex("index.html");
+        assertThat(FileUtils.readFileToString(first)).isEqualTo("unchanged");
+        assertThat(FileUtils.readFileToString(second)).contains("<a href=\"blog/2012/first-post.html\">");
+    }
+
+    @Test
+    public void renderTagsIncrementally() throws Exception {
+        config.setProperty(Keys.RENDER_TAGS_INCREMENTAL, true);
+        Renderer renderer = new Renderer(db, destinationFolder, templateFolder, config);
+        int tagCount = db.getTags().size();
+        assertThat(renderer.renderTags("tags")).isEqualTo(tagCount);
+
+        // nothing has changed
+        assertThat(renderer.renderTags("tags")).isEqualTo(0);
+
+        // missing files are rendered again
+        File blog = new File(destinationFolder, "tags/blog.html");
+        Assert.assertTrue(blog.delete());
+        assertThat(renderer.renderTags("tags")).isEqualTo(1);
+        Assert.assertTrue(blog.exists());
+
+        // files of removed tags are deleted, other files are kept
+        File removed = new File(destinationFolder, "tags/removed.html");
+        FileUtils.writeStringToFile(removed, "removed");
+        db.updateSignature("tag.removed", "0");
+        File foreign = new File(destinationFolder, "tags/index.html");
+        FileUtils.writeStringToFile(foreign, "index");
+        assertThat(renderer.renderTags("tags")).isEqualTo(0);
+        Assert.assertFalse(removed.exists());
+        Assert.assertTrue(foreign.exists());
+
+        config.setProperty(Keys.RENDER_TAGS_INCREMENTAL, false);
+        assertThat(renderer.renderTags("tags")).isEqualTo(tagCount);
+    }
+
+    @Test
+    public void rerenderKeepsUnchangedFiles() throws Exception {
+        File sampleFile = new File(sourceFolder, "content/blog/2013/second-post.html");
+        Map<String, Object> content = parser.processFile(sampleFile);
+        content.put(Crawler.Attributes.URI, "/second-post.html");
+        Renderer renderer = new Renderer(db, destinationFolder, templateFolder, config);
+        renderer.render(content);
+
+        File outputFile = new File(destinationFolder, "second-post.html");
+        String output = FileUtils.readFileToString(outputFile);
+        long modified = outputFile.lastModified() - 10000;
+        Assert.assertTrue(outputFile.setLastModified(modified));
+
+        // identical output is not written again
+        renderer.render(content);
+        assertThat(outputFile.lastModified()).isEqualTo(modified);
+        assertThat(FileUtils.readFileToString(outputFile)).isEqualTo(output);
+        assertThat(renderer.getOutputTracker().getWritten()).isEqualTo(1);
+        assertThat(renderer.getOutputTracker().getUnchanged()).isEqualTo(1);
+
+        // changed output replaces the file
+        content.put(Crawler.Attributes.BODY, "<p>changed</p>");
+        renderer.render(content);
+        assertThat(FileUtils.readFileToString(outputFile)).contains("<p>changed</p>");
+        assertThat(renderer.getOutputTracker().getWritten()).isEqualTo(2);
+    }
+
 }
@@ -23,7 +23,26 @@
  */
 package org.jbake.app.template;
 
+import org.apache.commons.io.FileUtils;
+import org.jbake.app.ContentStore;
+import org.jbake.app.Crawler;
+import org.jbake.app.Renderer;
+import org.jbake.template.ThymeleafTemplateEngine;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  *
@@ -35,4 +54,87 @@ public class ThymeleafTemplateEngineRenderingTest extends AbstractTemplateEngine
         super("thymeleafTemplates", "thyme");
     }
 
+    @Test
+    public void renderFragmentsWithoutExtension() throws Exception {
+        File templates = folder.newFolder("templates");
+        FileUtils.copyDirectory(templateFolder, templates);
+        File post = new File(templates, "post.thyme");
+        FileUtils.writeStringToFile(post, FileUtils.readFileToString(post, "UTF-8")
+                .replace("footer.thyme::footer", "footer :: footer")
+                .replace("header.thyme::top", "~{header :: top}"), "UTF-8");
+
+        Map<String, Object> content = parser.processFile(new File(sourceFolder, "content/blog/2013/second-post.html"));
+        content.put(Crawler.Attributes.URI, "/second-post.html");
+        new Renderer(db, destinationFolder, templates, config).render(content);
+
+        String output = FileUtils.readFileToString(new File(destinationFolder, "second-post.html"));
+        assertThat(output).contains("Mixed with <a href=\"http://twitter.github.com/bootstrap/\">Bootstrap v2.3.1</a>");
+        for (String string : getOutputStrings("post")) {
+            assertThat(output).contains(string);
+        }
+    }
+
+    @Test
+    public void templateWithoutCollectionsRunsNoQuery() throws Exception {
+        File templates = folder.newFolder("templates");
+        FileUtils.writeStringToFile(new File(templates, "simple.thyme"),
+                "<html><body><h1 th:text=\"${content.title}\">Title</h1></body></html>", "UTF-8");
+        List<String> calls = new ArrayList<String>();
+
+        String output = render(counting(db, calls), templates, "simple.thyme", new HashMap<String, Object>());
+
+        assertThat(output).contains("<h1>About</h1>");
+        assertThat(calls).isEmpty();
+    }
+
+    @Test
+    public void lazyCollectionsRenderLikeGivenOnes() throws Exception {
+        File templates = folder.newFolder("templates");
+        FileUtils.writeStringToFile(new File(templates, "collections.thyme"),
+                "<html><body>"
+                        + "<p th:each=\"post : ${published_posts}\" th:text=\"${post.title}\">Post</p>"
+                        + "<span th:each=\"tag : ${alltags}\" th:text=\"${tag}\">Tag</span>"
+                        + "</body></html>", "UTF-8");
+        Map<String, Object> given = new HashMap<String, Object>();
+        given.put("published_posts", db.getPublishedPosts());
+        given.put("alltags", db.getTags());
+        List<String> calls = new ArrayList<String>();
+
+        String lazy = render(counting(db, calls), templates, "collections.thyme", new HashMap<String, Object>());
+        String eager = render(db, templates, "collections.thyme", given);
+
+        assertThat(calls).contains("getPublishedPosts", "getTags");
+        assertThat(lazy).contains("<p>Second Post</p>", "<span>blog</span>").isEqualTo(eager);
+    }
+
+    private String render(ContentStore store, File templates, String templateName, Map<String, Object> model)
+            throws Exception {
+        Map<String, Object> content = new HashMap<String, Object>();
+        content.put(Crawler.Attributes.TYPE, "page");
+        content.put(Crawler.Attributes.TITLE, "About");
+        model.put("content", content);
+        StringWriter out = new StringWriter();
+        new ThymeleafTemplateEngine(config, store, destinationFolder, templates).renderDocument(model, templateName, out);
+        return out.toString();
+    }
+
+    /**
+     * Records the names of all methods called on the store, apart from checking the generation of cached results.
+     */
+    private static ContentStore counting(final ContentStore db, final List<String> calls) {
+        return (ContentStore) Proxy.newProxyInstance(ContentStore.class.getClassLoader(),
+                new Class<?>[] {ContentStore.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (!method.getName().equals("getGeneration")) {
+                            calls.add(method.getName());
+                        }
+                        try {
+                            return method.invoke(db, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
 }
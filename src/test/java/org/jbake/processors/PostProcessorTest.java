@@ -0,0 +1,100 @@
+package org.jbake.processors;
+
+import org.apache.commons.configuration.MapConfiguration;
+import org.jbake.app.ConfigUtil.Keys;
+import org.jbake.app.JBakeException;
+import org.jsoup.nodes.Document;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PostProcessorTest {
+
+    @Test
+    public void normalizesDocument() throws Exception {
+        String result = postProcess("<html><body class=\"b\" id=\"i\" data-x=\"1\"><!-- comment --><p>Hello   <b>world</b></p>"
+                + "<script>var  a = 1 < 2;</script><br></body></html>");
+
+        assertThat(result).isEqualTo("<?xml version=\"1.0\" encoding=\"utf-8\"?><html><head></head>"
+                + "<body class=\"b\" data-x=\"1\" id=\"i\"><p>Hello <b>world</b></p>"
+                + "<script>var a = 1 &lt; 2;</script><br/></body></html>");
+    }
+
+    @Test
+    public void obfuscatesAllMailtoLinks() throws Exception {
+        String result = postProcess("<html><body><a href=\"mailto:john.doe@example.com\">John &lt;john.doe@example.com&gt;</a>"
+                + "<p><a href=\"mailto:a@b.de\"><em>a@b.de</em></a></p></body></html>");
+
+        assertThat(result).doesNotContain("mailto:").doesNotContain("example.com").doesNotContain("b.de");
+        assertThat(result).contains("John &lt;<button onclick=\"var addr = 'john' + String.fromCharCode(46) + 'doe'");
+        assertThat(result).contains(">john.doe@...</button>&gt;");
+        assertThat(result).contains("<p><button onclick=\"var addr = 'a' + String.fromCharCode(64) + 'b'");
+        assertThat(result).contains(">a@...</button></p>");
+    }
+
+    @Test
+    public void processorsAreConfiguredPerType() throws Exception {
+        MapConfiguration config = new MapConfiguration(new HashMap<String, Object>());
+        config.setProperty(Keys.RENDER_PROCESSORS, "mailto");
+        config.setProperty(Keys.RENDER_PROCESSORS + ".page", "");
+        String html = "<html><body><!-- comment --><a href=\"mailto:a@b.de\">a@b.de</a></body></html>";
+
+        assertThat(postProcess(PostProcessor.forType(config, "post"), html)).doesNotContain("mailto:");
+
+        // without processors, the content is not even parsed
+        assertThat(postProcess(PostProcessor.forType(config, "page"), html)).isEqualTo(html);
+    }
+
+    @Test(expected = JBakeException.class)
+    public void failsForUnknownProcessors() {
+        MapConfiguration config = new MapConfiguration(new HashMap<String, Object>());
+        config.setProperty(Keys.RENDER_PROCESSORS, "mailto, unknown");
+        PostProcessor.forType(config, "post");
+    }
+
+    @Test
+    public void skipsDocumentProcessorsNotApplyingToTheText() throws Exception {
+        final StringBuilder processed = new StringBuilder();
+        MailtoObfuscator obfuscator = new MailtoObfuscator() {
+            @Override
+            public void process(Document document) {
+                processed.append(document.title()).append(';');
+                super.process(document);
+            }
+        };
+        PostProcessor processor = new PostProcessor(Arrays.<ContentProcessor>asList(obfuscator));
+
+        // the document is still normalized
+        assertThat(postProcess(processor, "<html><head><title>a</title></head><body><!-- comment --><p>Hello</p></body></html>"))
+                .doesNotContain("comment");
+        assertThat(postProcess(processor, "<html><head><title>b</title></head><body><a href=\"mailto:a@b.de\">a@b.de</a></body></html>"))
+                .doesNotContain("mailto:");
+        assertThat(processed.toString()).isEqualTo("b;");
+    }
+
+    @Test(expected = JBakeException.class)
+    public void failsForProcessorsOfUnknownKind() {
+        new PostProcessor(Arrays.<ContentProcessor>asList(new ContentProcessor() {
+            @Override
+            public String getName() {
+                return "plain";
+            }
+        }));
+    }
+
+    private static String postProcess(String html) throws Exception {
+        return postProcess(new PostProcessor(Arrays.<ContentProcessor>asList(new MailtoObfuscator())), html);
+    }
+
+    private static String postProcess(PostProcessor processor, String html) throws Exception {
+        StringWriter buffer = new StringWriter();
+        buffer.write(html);
+        StringWriter out = new StringWriter();
+        processor.postProcess(buffer, out);
+        return out.toString();
+    }
+}
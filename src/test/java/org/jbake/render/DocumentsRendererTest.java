@@ -1,6 +1,7 @@
 package org.jbake.render;
 
 import org.apache.commons.configuration.CompositeConfiguration;
+import org.jbake.app.ConfigUtil.Keys;
 import org.jbake.app.ContentStore;
 import org.jbake.app.DocumentList;
 import org.jbake.app.Renderer;
@@ -106,6 +107,56 @@ public class DocumentsRendererTest {
         assertThat(renderResponse).isEqualTo(2);
     }
 
+    @Test
+    public void shouldReturnCountOfDocumentsRenderedInParallel() throws Exception {
+
+        // given:
+        DocumentTypes.addDocumentType("customType");
+
+        DocumentList documentList = new DocumentList();
+        for (int i = 0; i < 10; i++) {
+            documentList.add(emptyDocument());
+        }
+
+        when(configuration.getInt(Keys.RENDER_THREADS, 1)).thenReturn(4);
+        when(db.getUnrenderedContent(anyString())).thenReturn(emptyDocumentList);
+        when(db.getUnrenderedContent("customType")).thenReturn(documentList);
+
+        // when:
+        int renderResponse = documentsRenderer.render(renderer,db,destinationFile,templatePath,configuration);
+
+        // then:
+        assertThat(renderResponse).isEqualTo(10);
+    }
+
+    @Test
+    public void shouldCollectErrorMessagesInDocumentOrderWhenRenderingInParallel() throws Exception {
+        // expect
+        exception.expect(RenderingException.class);
+        exception.expectMessage("Cause(s):\nfirst\nsecond");
+
+        // given
+        DocumentTypes.addDocumentType("customType");
+
+        DocumentList documentList = new DocumentList();
+        HashMap<String, Object> document = emptyDocument();
+        document.put("uri", "first");
+        HashMap<String, Object> document2 = emptyDocument();
+        document2.put("uri", "second");
+        documentList.add(document);
+        documentList.add(emptyDocument());
+        documentList.add(document2);
+
+        when(configuration.getInt(Keys.RENDER_THREADS, 1)).thenReturn(4);
+        doThrow(new Exception("first")).when(renderer).render(document);
+        doThrow(new Exception("second")).when(renderer).render(document2);
+        when(db.getUnrenderedContent(anyString())).thenReturn(emptyDocumentList);
+        when(db.getUnrenderedContent("customType")).thenReturn(documentList);
+
+        // when
+        documentsRenderer.render(renderer,db,destinationFile,templatePath,configuration);
+    }
+
     private HashMap<String, Object> emptyDocument() {
         return new HashMap<String,Object>();
     }
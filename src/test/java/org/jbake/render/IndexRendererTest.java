@@ -1,13 +1,18 @@
 package org.jbake.render;
 
 import org.apache.commons.configuration.CompositeConfiguration;
+import org.jbake.app.ConfigUtil.Keys;
 import org.jbake.app.ContentStore;
+import org.jbake.app.Crawler;
+import org.jbake.app.MemoryContentStore;
 import org.jbake.app.Renderer;
 import org.jbake.render.support.MockCompositeConfiguration;
 import org.jbake.template.RenderingException;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -87,6 +92,56 @@ public class IndexRendererTest {
         verify(mockRenderer, never()).renderIndex("random string");
     }
 
-}
+    @Test
+    public void digestOnlyChangesWithListedContent() {
+        IndexRenderer renderer = new IndexRenderer();
+        CompositeConfiguration config = new CompositeConfiguration();
+        ContentStore db = new MemoryContentStore();
+        db.addDocument("post", document("post.html", "1", "Post"));
+        db.addDocument("page", document("about.html", "1", "About"));
+        String digest = renderer.getContentDigest(db, config);
+
+        // the body of a page does not occur in the index
+        db.deleteContent("about.html");
+        db.addDocument("page", document("about.html", "2", "About"));
+        assertThat(renderer.getContentDigest(db, config)).isEqualTo(digest);
+
+        db.deleteContent("about.html");
+        db.addDocument("page", document("about.html", "2", "About us"));
+        assertThat(renderer.getContentDigest(db, config)).isNotEqualTo(digest);
+        digest = renderer.getContentDigest(db, config);
+
+        db.deleteContent("post.html");
+        db.addDocument("post", document("post.html", "2", "Post"));
+        assertThat(renderer.getContentDigest(db, config)).isNotEqualTo(digest);
+    }
+
+    @Test
+    public void outputFilesOnlyListedWhenIndexIsRendered() {
+        IndexRenderer renderer = new IndexRenderer();
+        CompositeConfiguration config = new CompositeConfiguration();
+        config.setProperty(Keys.RENDER_INDEX, true);
+        config.setProperty(Keys.INDEX_FILE, "index.html");
+        ContentStore db = new MemoryContentStore();
 
+        // no index without posts
+        assertThat(renderer.getOutputFiles(db, config)).isEmpty();
 
+        db.addDocument("post", document("post.html", "1", "Post"));
+        assertThat(renderer.getOutputFiles(db, config)).containsExactly("index.html");
+
+        config.setProperty(Keys.RENDER_INDEX, false);
+        assertThat(renderer.getOutputFiles(db, config)).isEmpty();
+    }
+
+    private static Map<String, Object> document(String uri, String sha1, String title) {
+        Map<String, Object> document = new HashMap<String, Object>();
+        document.put("sourceuri", uri);
+        document.put(Crawler.Attributes.URI, uri);
+        document.put("sha1", sha1);
+        document.put(Crawler.Attributes.TITLE, title);
+        document.put(Crawler.Attributes.STATUS, Crawler.Attributes.Status.PUBLISHED);
+        return document;
+    }
+
+}
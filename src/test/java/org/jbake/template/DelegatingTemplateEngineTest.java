@@ -0,0 +1,68 @@
+package org.jbake.template;
+
+import org.apache.commons.configuration.CompositeConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.jbake.app.ConfigUtil;
+import org.jbake.app.ContentStore;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.HashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class DelegatingTemplateEngineTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private CompositeConfiguration config;
+    private File templates;
+    private DelegatingTemplateEngine engine;
+
+    @Before
+    public void setup() throws Exception {
+        config = ConfigUtil.load(new File(getClass().getResource("/").getFile()));
+        templates = folder.newFolder("templates");
+        FileUtils.writeStringToFile(new File(templates, "greeting.ftl"), "${config.site_greeting}", "UTF-8");
+        config.setProperty("site.greeting", "Hello");
+        engine = new DelegatingTemplateEngine(config, mock(ContentStore.class), folder.newFolder("output"), templates);
+    }
+
+    @Test
+    public void configChangesAreShownInLaterRenders() throws Exception {
+        assertThat(render("greeting.ftl")).isEqualTo("Hello");
+
+        config.setProperty("site.greeting", "Good bye");
+        assertThat(render("greeting.ftl")).isEqualTo("Good bye");
+
+        config.clearProperty("site.greeting");
+        config.addProperty("site.greeting", "Welcome");
+        assertThat(render("greeting.ftl")).isEqualTo("Welcome");
+    }
+
+    @Test
+    public void fallbackForMissingExtensionIsCached() throws Exception {
+        // no Jade template, the Freemarker one is used instead
+        assertThat(render("greeting.jade")).isEqualTo("Hello");
+
+        // the file system is only checked for the first document using the template
+        FileUtils.writeStringToFile(new File(templates, "greeting.jade"), "p Not used", "UTF-8");
+        assertThat(render("greeting.jade")).isEqualTo("Hello");
+
+        // templates found directly are not affected by the fallback
+        assertThat(render("greeting.ftl")).isEqualTo("Hello");
+    }
+
+    private String render(String templateName) throws Exception {
+        StringWriter out = new StringWriter();
+        engine.renderDocument(new HashMap<String, Object>(), templateName, out);
+        return out.toString();
+    }
+
+}
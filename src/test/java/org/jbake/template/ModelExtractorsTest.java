@@ -1,12 +1,21 @@
 package org.jbake.template;
 
+import org.jbake.app.ContentStore;
+import org.jbake.app.DocumentList;
 import org.jbake.model.DocumentTypes;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class ModelExtractorsTest {
 
@@ -31,6 +40,10 @@ public class ModelExtractorsTest {
                 "alltags",
                 "db",
                 "tag_posts",
+                "tag_counts",
+                "asset_paths",
+                "image_srcset",
+                "image_thumbnails",
         };
 
         for (String aKey : expectedKeys) {
@@ -71,4 +84,33 @@ public class ModelExtractorsTest {
         String unknownDocumentType = "unknown";
         ModelExtractors.getInstance().registerExtractorsForCustomTypes(unknownDocumentType);
     }
+
+    @Test
+    public void shouldReuseExtractedDocumentsUntilContentChanges() throws Exception {
+        ContentStore db = mock(ContentStore.class);
+        DocumentList posts = new DocumentList();
+        posts.add(new HashMap<String, Object>());
+        when(db.getPublishedPosts()).thenReturn(posts);
+        when(db.getGeneration()).thenReturn(1L);
+
+        Map<String, Object> model = new HashMap<String, Object>();
+        DocumentList first = extract(db, "published_posts", model);
+        DocumentList second = extract(db, "published_posts", model);
+
+        verify(db, times(1)).getPublishedPosts();
+        assertThat(second).isNotSameAs(first).isEqualTo(first);
+
+        when(db.getGeneration()).thenReturn(2L);
+        extract(db, "published_posts", model);
+        verify(db, times(2)).getPublishedPosts();
+    }
+
+    private static DocumentList extract(ContentStore db, String key, Map<String, Object> model) throws NoModelExtractorException {
+        return ModelExtractors.getInstance().extractAndTransform(db, key, model, new TemplateEngineAdapter<DocumentList>() {
+            @Override
+            public DocumentList adapt(String key, Object extractedValue) {
+                return (DocumentList) extractedValue;
+            }
+        });
+    }
 }
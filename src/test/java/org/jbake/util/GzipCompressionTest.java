@@ -0,0 +1,119 @@
+package org.jbake.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.configuration.CompositeConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.jbake.app.ConfigUtil.Keys;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GzipCompressionTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private OutputTracker tracker;
+
+    @Before
+    public void setup() {
+        CompositeConfiguration config = new CompositeConfiguration();
+        config.setProperty(Keys.OUTPUT_GZIP, "html, .css");
+        config.setProperty(Keys.OUTPUT_GZIP_LEVEL, 6);
+        config.setProperty(Keys.OUTPUT_GZIP_MIN_SIZE, 100);
+        tracker = new OutputTracker(true);
+        tracker.setCompression(GzipCompression.fromConfig(config));
+    }
+
+    @Test
+    public void disabledWithoutExtensions() {
+        CompositeConfiguration config = new CompositeConfiguration();
+        config.setProperty(Keys.OUTPUT_GZIP, "");
+        assertThat(GzipCompression.fromConfig(config)).isNull();
+    }
+
+    @Test
+    public void writeCompressedSiblings() throws Exception {
+        String page = StringUtils.repeat("<p>compressible</p>", 20);
+        File html = new File(folder.getRoot(), "blog/page.html");
+        File compressed = new File(folder.getRoot(), "blog/page.html.gz");
+        write(html, page);
+        assertThat(compressed).isFile();
+        assertThat(compressed.length()).isLessThan(html.length());
+        assertThat(decompress(compressed)).isEqualTo(page);
+
+        // unchanged files keep their compressed sibling
+        long modified = compressed.lastModified() - 10000;
+        assertThat(compressed.setLastModified(modified)).isTrue();
+        write(html, page);
+        assertThat(compressed.lastModified()).isEqualTo(modified);
+
+        // small files and other extensions are not compressed, outdated siblings are removed
+        write(html, "<p>small</p>");
+        assertThat(compressed).doesNotExist();
+        File js = new File(folder.getRoot(), "script.js");
+        write(js, page);
+        assertThat(new File(folder.getRoot(), "script.js.gz")).doesNotExist();
+
+        write(html, page);
+        assertThat(tracker.delete(html)).isTrue();
+        assertThat(compressed).doesNotExist();
+    }
+
+    @Test
+    public void disablingCompressionRemovesSiblings() throws Exception {
+        String page = StringUtils.repeat("<p>compressible</p>", 20);
+        File html = new File(folder.getRoot(), "page.html");
+        File compressed = new File(folder.getRoot(), "page.html.gz");
+        write(html, page);
+        assertThat(compressed).isFile();
+
+        tracker.setCompression(null);
+        write(html, page + "<p>changed</p>");
+        assertThat(compressed).doesNotExist();
+
+        write(html, page);
+        tracker = new OutputTracker(false);
+        FileUtils.writeStringToFile(compressed, "stale", "UTF-8");
+        write(html, page);
+        assertThat(compressed).doesNotExist();
+    }
+
+    @Test
+    public void copyCompressedSiblings() throws Exception {
+        File source = folder.newFile("style.css");
+        FileUtils.writeStringToFile(source, StringUtils.repeat("p { margin: 0; }\n", 20), "UTF-8");
+        File copy = new File(folder.newFolder("output"), "style.css");
+        tracker.copy(source, copy, null);
+        assertThat(decompress(new File(copy.getPath() + ".gz"))).isEqualTo(FileUtils.readFileToString(source, "UTF-8"));
+    }
+
+    private void write(File file, String content) throws Exception {
+        Writer out = tracker.createWriter(file, UTF8);
+        out.write(content);
+        out.close();
+    }
+
+    private static String decompress(File file) throws Exception {
+        InputStream in = new GZIPInputStream(new FileInputStream(file));
+        try {
+            return IOUtils.toString(in, "UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+
+}
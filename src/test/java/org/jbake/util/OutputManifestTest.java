@@ -0,0 +1,127 @@
+package org.jbake.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.jbake.app.HashUtil;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class OutputManifestTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File source;
+    private File destination;
+    private File manifestFile;
+
+    @Before
+    public void setup() throws Exception {
+        source = folder.newFolder("source");
+        destination = folder.newFolder("output");
+        manifestFile = new File(source, "manifest.ndjson");
+    }
+
+    @Test
+    public void statusComparedWithPreviousBake() throws Exception {
+        OutputTracker tracker = new OutputTracker(true);
+
+        tracker.setManifest(OutputManifest.load(manifestFile, destination, source));
+        write(tracker, "index.html", "index", OutputManifest.toolSource("masterindex"));
+        write(tracker, "blog/first.html", "first", new File(source, "content/blog/first.md").getPath());
+        write(tracker, "blog/second.html", "second", null);
+        tracker.getManifest().write(manifestFile);
+
+        List<JSONObject> entries = readManifest();
+        assertThat(entries).hasSize(3);
+        assertEntry(entries.get(0), "blog/first.html", "first", "content/blog/first.md", "added");
+        assertEntry(entries.get(1), "blog/second.html", "second", null, "added");
+        assertEntry(entries.get(2), "index.html", "index", "tool:masterindex", "added");
+
+        // files not written again are unchanged, removed files are deleted
+        tracker.setManifest(OutputManifest.load(manifestFile, destination, source));
+        write(tracker, "blog/first.html", "first changed", null);
+        FileUtils.forceDelete(new File(destination, "blog/second.html"));
+        tracker.getManifest().write(manifestFile);
+
+        entries = readManifest();
+        assertThat(entries).hasSize(3);
+        assertEntry(entries.get(0), "blog/first.html", "first changed", "content/blog/first.md", "changed");
+        assertEntry(entries.get(1), "blog/second.html", "second", null, "deleted");
+        assertEntry(entries.get(2), "index.html", "index", "tool:masterindex", "unchanged");
+
+        // deleted files are reported once
+        tracker.setManifest(OutputManifest.load(manifestFile, destination, source));
+        write(tracker, "index.html", "index", OutputManifest.toolSource("masterindex"));
+        tracker.getManifest().write(manifestFile);
+
+        entries = readManifest();
+        assertThat(entries).hasSize(2);
+        assertEntry(entries.get(0), "blog/first.html", "first changed", "content/blog/first.md", "unchanged");
+        assertEntry(entries.get(1), "index.html", "index", "tool:masterindex", "unchanged");
+    }
+
+    @Test
+    public void filesModifiedOutsideOfTheBakeAreDetected() throws Exception {
+        OutputTracker tracker = new OutputTracker(true);
+        tracker.setManifest(OutputManifest.load(manifestFile, destination, source));
+        write(tracker, "a.html", "aaa", null);
+        write(tracker, "b.html", "bbb", null);
+        tracker.getManifest().write(manifestFile);
+
+        File a = new File(destination, "a.html");
+        File b = new File(destination, "b.html");
+        long lastModified = a.lastModified();
+        assertThat(readManifest().get(0).get("lastModified")).isEqualTo(lastModified);
+
+        // same size, only the modification time tells
+        FileUtils.writeStringToFile(a, "xxx", "UTF-8");
+        a.setLastModified(lastModified - 10000);
+        // touched, but not changed
+        b.setLastModified(lastModified - 10000);
+        tracker.setManifest(OutputManifest.load(manifestFile, destination, source));
+        tracker.getManifest().write(manifestFile);
+
+        List<JSONObject> entries = readManifest();
+        assertEntry(entries.get(0), "a.html", "xxx", null, "changed");
+        assertEntry(entries.get(1), "b.html", "bbb", null, "unchanged");
+        assertThat(entries.get(1).get("lastModified")).isEqualTo(b.lastModified());
+    }
+
+    private List<JSONObject> readManifest() throws Exception {
+        List<JSONObject> result = new ArrayList<JSONObject>();
+        for (String line : FileUtils.readLines(manifestFile, "UTF-8")) {
+            result.add((JSONObject) JSONValue.parse(line));
+        }
+        return result;
+    }
+
+    private static void assertEntry(JSONObject entry, String path, String content, String source, String status) {
+        byte[] bytes = content.getBytes(UTF8);
+        assertThat(entry.get("path")).isEqualTo(path);
+        assertThat(entry.get("size")).isEqualTo((long) bytes.length);
+        assertThat(entry.get("sha1")).isEqualTo(HashUtil.sha1(bytes));
+        assertThat(entry.get("source")).isEqualTo(source);
+        assertThat(entry.get("status")).isEqualTo(status);
+    }
+
+    private void write(OutputTracker tracker, String path, String content, String source) throws Exception {
+        Writer out = tracker.createWriter(new File(destination, path), UTF8, source);
+        out.write(content);
+        out.close();
+    }
+
+}